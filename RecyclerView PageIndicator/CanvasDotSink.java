@@ -0,0 +1,33 @@
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+
+public final class CanvasDotSink implements DotSink {
+    private Canvas mCanvas;
+    private Paint mPaint;
+    private DotSpriteAtlas mSpriteAtlas;
+    private int mColor;
+
+    public void begin(Canvas canvas, Paint paint, DotSpriteAtlas spriteAtlas, int color) {
+        this.mCanvas = canvas;
+        this.mPaint = paint;
+        this.mSpriteAtlas = spriteAtlas;
+        this.mColor = color;
+    }
+
+    public void end() {
+        this.mCanvas = null;
+        this.mPaint = null;
+        this.mSpriteAtlas = null;
+    }
+
+    public void drawDot(float cx, float cy, float radius, int alpha) {
+        this.mPaint.setAlpha(alpha);
+        if (this.mSpriteAtlas != null) {
+            this.mSpriteAtlas.draw(this.mCanvas, cx, cy, radius, this.mColor, this.mPaint);
+        } else {
+            this.mCanvas.drawCircle(cx, cy, radius, this.mPaint);
+        }
+
+    }
+}
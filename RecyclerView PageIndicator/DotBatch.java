@@ -0,0 +1,105 @@
+
+public final class DotBatch {
+    private final float mRadiusStep;
+    private int[] mDotBucket = new int[0];
+    private long[] mBucketKey = new long[0];
+    private int[] mBucketCount = new int[0];
+    private int[] mBucketOffset = new int[0];
+    private int[] mBucketCursor = new int[0];
+    private float[] mPoints = new float[0];
+    private int mBucketSize;
+
+    public DotBatch(float radiusStep) {
+        this.mRadiusStep = radiusStep;
+    }
+
+    // groups the frame's dots by quantized radius and alpha, each bucket's centres are contiguous in getPoints()
+    public int build(IndicatorModel model) {
+        int count = model.getFrameCount();
+        this.ensureCapacity(count);
+        float[] x = model.getFrameX();
+        float[] y = model.getFrameY();
+        float[] radius = model.getFrameRadius();
+        int[] alpha = model.getFrameAlpha();
+        this.mBucketSize = 0;
+
+        for(int i = 0; i < count; ++i) {
+            int step = Math.round(radius[i] / this.mRadiusStep);
+            if (step <= 0) {
+                this.mDotBucket[i] = -1;
+            } else {
+                long key = (long)step << 32 | (long)alpha[i] & 4294967295L;
+                int bucket = 0;
+
+                while(bucket < this.mBucketSize && this.mBucketKey[bucket] != key) {
+                    ++bucket;
+                }
+
+                if (bucket == this.mBucketSize) {
+                    this.mBucketKey[bucket] = key;
+                    this.mBucketCount[bucket] = 0;
+                    ++this.mBucketSize;
+                }
+
+                ++this.mBucketCount[bucket];
+                this.mDotBucket[i] = bucket;
+            }
+        }
+
+        int offset = 0;
+
+        for(int b = 0; b < this.mBucketSize; ++b) {
+            this.mBucketOffset[b] = offset;
+            this.mBucketCursor[b] = offset;
+            offset += this.mBucketCount[b];
+        }
+
+        for(int i = 0; i < count; ++i) {
+            int bucket = this.mDotBucket[i];
+            if (bucket >= 0) {
+                int point = this.mBucketCursor[bucket]++ << 1;
+                this.mPoints[point] = x[i];
+                this.mPoints[point + 1] = y[i];
+            }
+        }
+
+        return this.mBucketSize;
+    }
+
+    public int getBucketCount() {
+        return this.mBucketSize;
+    }
+
+    public float getBucketRadius(int bucket) {
+        return (float)(this.mBucketKey[bucket] >>> 32) * this.mRadiusStep;
+    }
+
+    public int getBucketAlpha(int bucket) {
+        return (int)this.mBucketKey[bucket];
+    }
+
+    // offset and count in floats, as drawPoints takes them
+    public int getBucketOffset(int bucket) {
+        return this.mBucketOffset[bucket] << 1;
+    }
+
+    public int getBucketPointCount(int bucket) {
+        return this.mBucketCount[bucket] << 1;
+    }
+
+    public float[] getPoints() {
+        return this.mPoints;
+    }
+
+    private void ensureCapacity(int count) {
+        if (this.mDotBucket.length < count) {
+            this.mDotBucket = new int[count];
+            this.mBucketKey = new long[count];
+            this.mBucketCount = new int[count];
+            this.mBucketOffset = new int[count];
+            this.mBucketCursor = new int[count];
+            this.mPoints = new float[count * 2];
+        }
+
+    }
+}
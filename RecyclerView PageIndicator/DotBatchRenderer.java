@@ -0,0 +1,36 @@
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Paint.Cap;
+import android.graphics.Paint.Style;
+
+public final class DotBatchRenderer {
+    private final DotBatch mBatch;
+    private final Paint mPaint;
+
+    public DotBatchRenderer(float radiusStep) {
+        this.mBatch = new DotBatch(radiusStep);
+        this.mPaint = new Paint();
+        this.mPaint.setStyle(Style.STROKE);
+        this.mPaint.setStrokeCap(Cap.ROUND);
+    }
+
+    public int getBucketCount() {
+        return this.mBatch.getBucketCount();
+    }
+
+    public void draw(Canvas canvas, IndicatorModel model, Paint dotPaint) {
+        DotBatch batch = this.mBatch;
+        int buckets = batch.build(model);
+        Paint paint = this.mPaint;
+        paint.setColor(dotPaint.getColor());
+        paint.setAntiAlias(dotPaint.isAntiAlias());
+
+        for(int b = 0; b < buckets; ++b) {
+            paint.setStrokeWidth(batch.getBucketRadius(b) * 2.0F);
+            paint.setAlpha(batch.getBucketAlpha(b));
+            canvas.drawPoints(batch.getPoints(), batch.getBucketOffset(b), batch.getBucketPointCount(b), paint);
+        }
+
+    }
+}
@@ -0,0 +1,4 @@
+
+public interface DotSink {
+    void drawDot(float cx, float cy, float radius, int alpha);
+}
@@ -0,0 +1,90 @@
+
+import android.graphics.Bitmap;
+import android.graphics.Bitmap.Config;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+
+public final class DotSpriteAtlas {
+    private final int mCapacity;
+    private final float mRadiusStep;
+    private final long[] mKeys;
+    private final Bitmap[] mSprites;
+    private final long[] mLastUsed;
+    private final Paint mRasterPaint;
+    private final Canvas mRasterCanvas = new Canvas();
+    private int mSize;
+    private long mClock;
+
+    public DotSpriteAtlas(int capacity, float radiusStep) {
+        this.mCapacity = capacity;
+        this.mRadiusStep = radiusStep;
+        this.mKeys = new long[capacity];
+        this.mSprites = new Bitmap[capacity];
+        this.mLastUsed = new long[capacity];
+        this.mRasterPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    }
+
+    // one sprite per radius step between the smallest and the largest dot, so a shift animation never evicts
+    public static int capacityFor(int dotRadius, int dotRadiusMin, float radiusStep) {
+        return Math.max(1, Math.round((float)Math.max(dotRadius, dotRadiusMin) / radiusStep) - Math.round((float)Math.min(dotRadius, dotRadiusMin) / radiusStep) + 1);
+    }
+
+    public int getCapacity() {
+        return this.mCapacity;
+    }
+
+    public int size() {
+        return this.mSize;
+    }
+
+    public void draw(Canvas canvas, float cx, float cy, float radius, int color, Paint paint) {
+        int step = Math.round(radius / this.mRadiusStep);
+        if (step > 0) {
+            Bitmap sprite = this.obtain(step, color);
+            float half = (float)sprite.getWidth() / 2.0F;
+            canvas.drawBitmap(sprite, cx - half, cy - half, paint);
+        }
+    }
+
+    private Bitmap obtain(int step, int color) {
+        long key = (long)step << 32 | (long)color & 4294967295L;
+        long now = ++this.mClock;
+        int victim = 0;
+
+        for(int i = 0; i < this.mSize; ++i) {
+            if (this.mKeys[i] == key) {
+                this.mLastUsed[i] = now;
+                return this.mSprites[i];
+            }
+            if (this.mLastUsed[i] < this.mLastUsed[victim]) {
+                victim = i;
+            }
+        }
+
+        int slot = this.mSize < this.mCapacity ? this.mSize++ : victim;
+        // an evicted sprite may still be referenced by a recorded display list, so it is left to the GC instead of recycled
+        this.mKeys[slot] = key;
+        this.mSprites[slot] = this.rasterize((float)step * this.mRadiusStep, color);
+        this.mLastUsed[slot] = now;
+        return this.mSprites[slot];
+    }
+
+    private Bitmap rasterize(float radius, int color) {
+        int size = (int)Math.ceil((double)(radius * 2.0F)) + 2;
+        Bitmap sprite = Bitmap.createBitmap(size, size, Config.ARGB_8888);
+        this.mRasterPaint.setColor(color | -16777216);
+        Canvas canvas = this.mRasterCanvas;
+        canvas.setBitmap(sprite);
+        canvas.drawCircle((float)size / 2.0F, (float)size / 2.0F, radius, this.mRasterPaint);
+        canvas.setBitmap(null);
+        return sprite;
+    }
+
+    public void clear() {
+        for(int i = 0; i < this.mSize; ++i) {
+            this.mSprites[i] = null;
+        }
+
+        this.mSize = 0;
+    }
+}
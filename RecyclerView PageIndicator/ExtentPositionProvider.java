@@ -0,0 +1,52 @@
+
+import android.support.annotation.NonNull;
+import android.support.v7.widget.RecyclerView;
+
+public abstract class ExtentPositionProvider implements IndicatorPositionProvider {
+    protected final boolean mVertical;
+    private final ScrollOffsetTracker mTracker = new ScrollOffsetTracker();
+
+    protected ExtentPositionProvider(boolean vertical) {
+        this.mVertical = vertical;
+    }
+
+    public boolean update(@NonNull RecyclerView recyclerView, int dx, int dy) {
+        return this.mTracker.scrollBy(this.mVertical ? dy : dx) || this.resync(recyclerView);
+    }
+
+    protected abstract boolean resync(@NonNull RecyclerView recyclerView);
+
+    protected final boolean setAnchor(int index, int start, int extent) {
+        if (index == RecyclerView.NO_POSITION || extent <= 0) {
+            this.mTracker.invalidate();
+            return false;
+        } else {
+            this.mTracker.setAnchor(index, start, extent);
+            return true;
+        }
+    }
+
+    public int getIndex() {
+        return this.mTracker.getIndex();
+    }
+
+    public float getPercent() {
+        return this.mTracker.getPercent();
+    }
+
+    public int getExtent() {
+        return this.mTracker.getExtent();
+    }
+
+    public int getItemStart() {
+        return this.mTracker.getItemStart();
+    }
+
+    public long getOffset() {
+        return this.mTracker.getOffset();
+    }
+
+    public void invalidate() {
+        this.mTracker.invalidate();
+    }
+}
@@ -0,0 +1,30 @@
+
+import android.support.annotation.NonNull;
+import android.support.v7.widget.GridLayoutManager;
+import android.support.v7.widget.RecyclerView;
+import android.view.View;
+
+public class GridPositionProvider extends ExtentPositionProvider {
+    private final GridLayoutManager mLayoutManager;
+
+    public GridPositionProvider(@NonNull GridLayoutManager layoutManager) {
+        super(layoutManager.getOrientation() == GridLayoutManager.VERTICAL);
+        this.mLayoutManager = layoutManager;
+    }
+
+    // items per dot, each dot stands for one row
+    public int getSpanCount() {
+        return Math.max(1, this.mLayoutManager.getSpanCount());
+    }
+
+    protected boolean resync(@NonNull RecyclerView recyclerView) {
+        int position = this.mLayoutManager.findFirstVisibleItemPosition();
+        View view = position == RecyclerView.NO_POSITION ? null : this.mLayoutManager.findViewByPosition(position);
+        if (view == null) {
+            return this.setAnchor(RecyclerView.NO_POSITION, 0, 0);
+        } else {
+            int row = position / this.getSpanCount();
+            return this.mVertical ? this.setAnchor(row, (int)view.getY(), view.getHeight()) : this.setAnchor(row, (int)view.getX(), view.getWidth());
+        }
+    }
+}
@@ -0,0 +1,91 @@
+
+public final class IndicatorGeometry {
+    private final int mDotVisibleCount;
+    private final int mDotRadius;
+    private final int mDotRadiusMin;
+    private final float mDotAlpha;
+    private final float mDotAlphaMin;
+    // four copies of each table, one per edge case: bit 0 = window at the start, bit 1 = window at the end
+    private final float[] mStaticRadius;
+    private final float[] mShiftRadius0;
+    private final float[] mShiftRadius1;
+    private final float[] mShiftAlpha0;
+    private final float[] mShiftAlpha1;
+
+    public IndicatorGeometry(int dotVisibleCount, int dotRadius, int dotRadiusMin, float dotAlpha, float dotAlphaMin) {
+        this.mDotVisibleCount = dotVisibleCount;
+        this.mDotRadius = dotRadius;
+        this.mDotRadiusMin = dotRadiusMin;
+        this.mDotAlpha = dotAlpha;
+        this.mDotAlphaMin = dotAlphaMin;
+        int stride = dotVisibleCount + 1;
+        this.mStaticRadius = new float[stride * 4];
+        this.mShiftRadius0 = new float[stride * 4];
+        this.mShiftRadius1 = new float[stride * 4];
+        this.mShiftAlpha0 = new float[stride * 4];
+        this.mShiftAlpha1 = new float[stride * 4];
+
+        for(int edges = 0; edges < 4; ++edges) {
+            boolean atStart = (edges & 1) != 0;
+            boolean atEnd = (edges & 2) != 0;
+            int base = edges * stride;
+
+            for(int i = 0; i < stride; ++i) {
+                this.mStaticRadius[base + i] = i < dotVisibleCount ? this.slotRadius(i, atStart, atEnd) : 0.0F;
+                this.mShiftRadius0[base + i] = i < dotVisibleCount ? this.slotRadius(i, atStart, false) : (float)dotRadiusMin;
+                this.mShiftAlpha0[base + i] = i < dotVisibleCount ? 1.0F : 0.0F;
+                this.mShiftRadius1[base + i] = i > 0 ? this.slotRadius(i - 1, false, atEnd) : (float)dotRadiusMin;
+                this.mShiftAlpha1[base + i] = i > 0 ? 1.0F : 0.0F;
+            }
+        }
+
+    }
+
+    private float slotRadius(int slot, boolean atStart, boolean atEnd) {
+        return slot == 0 && !atStart || slot == this.mDotVisibleCount - 1 && !atEnd ? (float)this.mDotRadiusMin : (float)this.mDotRadius;
+    }
+
+    public boolean matches(int dotVisibleCount, int dotRadius, int dotRadiusMin, float dotAlpha, float dotAlphaMin) {
+        return this.mDotVisibleCount == dotVisibleCount && this.mDotRadius == dotRadius && this.mDotRadiusMin == dotRadiusMin && this.mDotAlpha == dotAlpha && this.mDotAlphaMin == dotAlphaMin;
+    }
+
+    public int getDotVisibleCount() {
+        return this.mDotVisibleCount;
+    }
+
+    public int getDotRadius() {
+        return this.mDotRadius;
+    }
+
+    public int getDotRadiusMin() {
+        return this.mDotRadiusMin;
+    }
+
+    public float getDotAlpha() {
+        return this.mDotAlpha;
+    }
+
+    public float getDotAlphaMin() {
+        return this.mDotAlphaMin;
+    }
+
+    float[] getStaticRadius() {
+        return this.mStaticRadius;
+    }
+
+    float[] getShiftRadius0() {
+        return this.mShiftRadius0;
+    }
+
+    float[] getShiftRadius1() {
+        return this.mShiftRadius1;
+    }
+
+    float[] getShiftAlpha0() {
+        return this.mShiftAlpha0;
+    }
+
+    float[] getShiftAlpha1() {
+        return this.mShiftAlpha1;
+    }
+}
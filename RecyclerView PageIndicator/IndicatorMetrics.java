@@ -0,0 +1,243 @@
+
+import java.util.Arrays;
+
+public final class IndicatorMetrics {
+    public static final int HISTOGRAM_SCROLL_POSITION = 0;
+    public static final int HISTOGRAM_DRAW = 1;
+    // HISTOGRAM_DRAW_BRANCH + IndicatorModel.BRANCH_* is the draw time of that branch
+    public static final int HISTOGRAM_DRAW_BRANCH = 2;
+    public static final int HISTOGRAM_COUNT = HISTOGRAM_DRAW_BRANCH + 6;
+    public static final long DEFAULT_BUDGET_NANOS = 1000000L;
+    private static final String[] HISTOGRAM_NAMES = new String[]{"scrollPosition", "draw", "draw/none", "draw/noneNormal", "draw/up", "draw/down", "draw/upNormal", "draw/downNormal"};
+    // four linear sub-buckets per power of two keep every bucket within 25% of its values
+    private static final int SUB_BUCKET_BITS = 2;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = 64 * SUB_BUCKETS;
+    private final long[][] mBuckets = new long[HISTOGRAM_COUNT][BUCKET_COUNT];
+    private final long[] mCount = new long[HISTOGRAM_COUNT];
+    private final long[] mTotal = new long[HISTOGRAM_COUNT];
+    private final long[] mMax = new long[HISTOGRAM_COUNT];
+    private final Snapshot mReportSnapshot = new Snapshot();
+    private long mBudgetNanos = DEFAULT_BUDGET_NANOS;
+    private long mFrameCount;
+    private long mJankFrameCount;
+    private boolean mPendingOverBudget;
+    private Listener mListener;
+
+    public void setBudgetNanos(long budgetNanos) {
+        this.mBudgetNanos = budgetNanos;
+    }
+
+    public long getBudgetNanos() {
+        return this.mBudgetNanos;
+    }
+
+    public void setListener(Listener listener) {
+        this.mListener = listener;
+    }
+
+    public Listener getListener() {
+        return this.mListener;
+    }
+
+    public static String getHistogramName(int histogram) {
+        return HISTOGRAM_NAMES[histogram];
+    }
+
+    public void recordScrollPosition(long nanos) {
+        this.add(HISTOGRAM_SCROLL_POSITION, nanos);
+        if (nanos > this.mBudgetNanos) {
+            this.mPendingOverBudget = true;
+            if (this.mListener != null) {
+                this.mListener.onOverBudget(HISTOGRAM_SCROLL_POSITION, nanos);
+            }
+        }
+
+    }
+
+    public void recordDraw(int branch, long nanos) {
+        this.add(HISTOGRAM_DRAW, nanos);
+        this.add(HISTOGRAM_DRAW_BRANCH + branch, nanos);
+        ++this.mFrameCount;
+        boolean overBudget = nanos > this.mBudgetNanos;
+        if (overBudget || this.mPendingOverBudget) {
+            ++this.mJankFrameCount;
+            this.mPendingOverBudget = false;
+        }
+
+        if (overBudget && this.mListener != null) {
+            this.mListener.onOverBudget(HISTOGRAM_DRAW_BRANCH + branch, nanos);
+        }
+
+    }
+
+    private void add(int histogram, long nanos) {
+        long value = Math.max(0L, nanos);
+        ++this.mBuckets[histogram][bucketOf(value)];
+        ++this.mCount[histogram];
+        this.mTotal[histogram] += value;
+        if (value > this.mMax[histogram]) {
+            this.mMax[histogram] = value;
+        }
+
+    }
+
+    private static int bucketOf(long value) {
+        if (value < (long)SUB_BUCKETS) {
+            return (int)value;
+        } else {
+            int exponent = 63 - Long.numberOfLeadingZeros(value);
+            int sub = (int)(value >>> exponent - SUB_BUCKET_BITS) & SUB_BUCKETS - 1;
+            return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+        }
+    }
+
+    private static long bucketLowerBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return (long)bucket;
+        } else {
+            int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+            return (long)(SUB_BUCKETS + bucket % SUB_BUCKETS) << exponent - SUB_BUCKET_BITS;
+        }
+    }
+
+    private static long bucketWidth(int bucket) {
+        return bucket < SUB_BUCKETS ? 1L : 1L << bucket / SUB_BUCKETS - 1;
+    }
+
+    public long getPercentile(int histogram, float percentile) {
+        long count = this.mCount[histogram];
+        if (count == 0L) {
+            return 0L;
+        } else {
+            long rank = Math.max(1L, (long)Math.ceil((double)(percentile / 100.0F) * (double)count));
+            long[] buckets = this.mBuckets[histogram];
+            long seen = 0L;
+
+            for(int b = 0; b < BUCKET_COUNT; ++b) {
+                seen += buckets[b];
+                if (seen >= rank) {
+                    return Math.min(this.mMax[histogram], bucketLowerBound(b) + bucketWidth(b) / 2L);
+                }
+            }
+
+            return this.mMax[histogram];
+        }
+    }
+
+    public long getCount(int histogram) {
+        return this.mCount[histogram];
+    }
+
+    public long getFrameCount() {
+        return this.mFrameCount;
+    }
+
+    public long getJankFrameCount() {
+        return this.mJankFrameCount;
+    }
+
+    public void snapshot(Snapshot out) {
+        for(int h = 0; h < HISTOGRAM_COUNT; ++h) {
+            long count = this.mCount[h];
+            out.mCount[h] = count;
+            out.mMean[h] = count == 0L ? 0L : this.mTotal[h] / count;
+            out.mP50[h] = this.getPercentile(h, 50.0F);
+            out.mP90[h] = this.getPercentile(h, 90.0F);
+            out.mP99[h] = this.getPercentile(h, 99.0F);
+            out.mMax[h] = this.mMax[h];
+        }
+
+        out.mFrameCount = this.mFrameCount;
+        out.mJankFrameCount = this.mJankFrameCount;
+        out.mBudgetNanos = this.mBudgetNanos;
+    }
+
+    public void reset() {
+        for(int h = 0; h < HISTOGRAM_COUNT; ++h) {
+            Arrays.fill(this.mBuckets[h], 0L);
+            this.mCount[h] = 0L;
+            this.mTotal[h] = 0L;
+            this.mMax[h] = 0L;
+        }
+
+        this.mFrameCount = 0L;
+        this.mJankFrameCount = 0L;
+        this.mPendingOverBudget = false;
+    }
+
+    public void report() {
+        if (this.mListener != null) {
+            this.snapshot(this.mReportSnapshot);
+            this.mListener.onReport(this.mReportSnapshot);
+        }
+
+        this.reset();
+    }
+
+    public interface Listener {
+        void onOverBudget(int histogram, long nanos);
+
+        // the snapshot is reused by the next report, copy what needs to outlive the call
+        void onReport(Snapshot snapshot);
+    }
+
+    public static final class Snapshot {
+        private final long[] mCount = new long[HISTOGRAM_COUNT];
+        private final long[] mMean = new long[HISTOGRAM_COUNT];
+        private final long[] mP50 = new long[HISTOGRAM_COUNT];
+        private final long[] mP90 = new long[HISTOGRAM_COUNT];
+        private final long[] mP99 = new long[HISTOGRAM_COUNT];
+        private final long[] mMax = new long[HISTOGRAM_COUNT];
+        private long mFrameCount;
+        private long mJankFrameCount;
+        private long mBudgetNanos;
+
+        public long getCount(int histogram) {
+            return this.mCount[histogram];
+        }
+
+        public long getMeanNanos(int histogram) {
+            return this.mMean[histogram];
+        }
+
+        public long getP50Nanos(int histogram) {
+            return this.mP50[histogram];
+        }
+
+        public long getP90Nanos(int histogram) {
+            return this.mP90[histogram];
+        }
+
+        public long getP99Nanos(int histogram) {
+            return this.mP99[histogram];
+        }
+
+        public long getMaxNanos(int histogram) {
+            return this.mMax[histogram];
+        }
+
+        public long getFrameCount() {
+            return this.mFrameCount;
+        }
+
+        public long getJankFrameCount() {
+            return this.mJankFrameCount;
+        }
+
+        public long getBudgetNanos() {
+            return this.mBudgetNanos;
+        }
+
+        public void dump(StringBuilder out) {
+            out.append("frames=").append(this.mFrameCount).append(" jank=").append(this.mJankFrameCount).append(" budget=").append(this.mBudgetNanos / 1000L).append("us\n");
+
+            for(int h = 0; h < HISTOGRAM_COUNT; ++h) {
+                if (this.mCount[h] != 0L) {
+                    out.append(HISTOGRAM_NAMES[h]).append(" n=").append(this.mCount[h]).append(" mean=").append(this.mMean[h]).append("ns p50=").append(this.mP50[h]).append("ns p90=").append(this.mP90[h]).append("ns p99=").append(this.mP99[h]).append("ns max=").append(this.mMax[h]).append("ns\n");
+                }
+            }
+
+        }
+    }
+}
@@ -0,0 +1,793 @@
+
+public class IndicatorModel {
+    public static final int BRANCH_NONE = 0;
+    public static final int BRANCH_NONE_NORMAL = 1;
+    public static final int BRANCH_UP = 2;
+    public static final int BRANCH_DOWN = 3;
+    public static final int BRANCH_UP_NORMAL = 4;
+    public static final int BRANCH_DOWN_NORMAL = 5;
+    public static final int DIRTY_NONE = 0;
+    public static final int DIRTY_REGION = 1;
+    public static final int DIRTY_ALL = 2;
+    private int mDotVisibleCount = 5;
+    private int mDotCount = 4;
+    private int mDotRadius = 20;
+    private int mDotRadiusMin = 10;
+    private int mDotDelta = 10;
+    private int mDotSpacing = -1;
+    private float mDotAlphaMin = 0.2F;
+    private float mDotAlpha = 1.0F;
+    private float mScrollY = 0.0F;
+    private float mScrollPercent = 0.0F;
+    private int mCurrentSelectedIndex = 0;
+    private int mFirstVisibleIndex = 0;
+    private float mStartedPercent = 0.0F;
+    private int mNextSelectedIndex = 0;
+    private int mPageFirstIndex = 0;
+    private IndicatorSectionIndex mSections;
+    private int mCurrentSection = -1;
+    private int mWidth;
+    private int mHeight;
+    private int mPaddingTop;
+    private int mPaddingBottom;
+    private float mStartX;
+    private float mNormalStartY;
+    private float mWindowStartY;
+    private float mPitch;
+    private float mClipLeft;
+    private float mClipTop;
+    private float mClipRight;
+    private float mClipBottom;
+    // per instance: the config above mirrors the geometry for the hot path, and ten slot arrays of visible count + 1 hold the frame, its scratch and the last rendered copy
+    private float[] mFrameX;
+    private float[] mFrameY;
+    private float[] mFrameRadius;
+    private int[] mFrameAlpha;
+    private int mFrameCount;
+    private int mFrameBranch;
+    private boolean[] mFrameStatic;
+    private float mFrameTranslationY;
+    private int mFrameWindowFirst;
+    private boolean mFrameShifting;
+    private int mGeneration;
+    private float[] mSlotAlpha;
+    private IndicatorGeometry mGeometry;
+    private float[] mRenderedX;
+    private float[] mRenderedY;
+    private float[] mRenderedRadius;
+    private int[] mRenderedAlpha;
+    private int mRenderedCount = -1;
+    private boolean mWindowAnimating;
+    private float mWindowFrom;
+    private int mWindowTo;
+    private float mWindowPosition;
+    private long mWindowStartTime;
+    private long mWindowDuration;
+    private float mDisplacedWindowPosition;
+    private boolean mSnapRadius;
+
+    public IndicatorModel() {
+        this.setGeometry(new IndicatorGeometry(this.mDotVisibleCount, this.mDotRadius, this.mDotRadiusMin, this.mDotAlpha, this.mDotAlphaMin));
+    }
+
+    public IndicatorModel(IndicatorGeometry geometry) {
+        this.setGeometry(geometry);
+    }
+
+    public IndicatorGeometry getGeometry() {
+        return this.mGeometry;
+    }
+
+    public void setGeometry(IndicatorGeometry geometry) {
+        if (this.mGeometry != geometry) {
+            this.mGeometry = geometry;
+            this.mDotVisibleCount = geometry.getDotVisibleCount();
+            this.mDotRadius = geometry.getDotRadius();
+            this.mDotRadiusMin = geometry.getDotRadiusMin();
+            this.mDotAlpha = geometry.getDotAlpha();
+            this.mDotAlphaMin = geometry.getDotAlphaMin();
+            this.ensureFrameCapacity(this.mDotVisibleCount + 1);
+            this.mFirstVisibleIndex = this.windowFor(this.mCurrentSelectedIndex);
+            this.updateLayout();
+            ++this.mGeneration;
+        }
+    }
+
+    public int getDotCount() {
+        return this.mDotCount;
+    }
+
+    public int getDotVisibleCount() {
+        return this.mDotVisibleCount;
+    }
+
+    public int getDotRadius() {
+        return this.mDotRadius;
+    }
+
+    public int getDotRadiusMin() {
+        return this.mDotRadiusMin;
+    }
+
+    public int getDotDelta() {
+        return this.mDotDelta;
+    }
+
+    public int getDotSpacing() {
+        return this.mDotSpacing;
+    }
+
+    public float getPitch() {
+        return this.mPitch;
+    }
+
+    public int getIntrinsicWidth() {
+        return this.mDotRadius * 2;
+    }
+
+    // inverse of measure(): at this content height the derived delta equals the spacing
+    public int getIntrinsicHeight() {
+        int spacing = this.mDotSpacing >= 0 ? this.mDotSpacing : this.mDotRadius;
+        return (this.mDotVisibleCount + 2) * this.mDotRadius * 2 + (this.mDotVisibleCount + 1) * spacing;
+    }
+
+    public int getPageFirstIndex() {
+        return this.mPageFirstIndex;
+    }
+
+    public int getCurrentSelectedIndex() {
+        return this.mCurrentSelectedIndex;
+    }
+
+    public int getNextSelectedIndex() {
+        return this.mNextSelectedIndex;
+    }
+
+    public int getFirstVisibleIndex() {
+        return this.mFirstVisibleIndex;
+    }
+
+    public float getScrollY() {
+        return this.mScrollY;
+    }
+
+    public float getScrollPercent() {
+        return this.mScrollPercent;
+    }
+
+    public float getStartedPercent() {
+        return this.mStartedPercent;
+    }
+
+    public void setDotVisibleCount(int dotVisibleCount) {
+        this.setGeometry(new IndicatorGeometry(dotVisibleCount, this.mDotRadius, this.mDotRadiusMin, this.mDotAlpha, this.mDotAlphaMin));
+    }
+
+    public void setDotRadius(int dotRadius, int dotRadiusMin) {
+        this.setGeometry(new IndicatorGeometry(this.mDotVisibleCount, dotRadius, dotRadiusMin, this.mDotAlpha, this.mDotAlphaMin));
+    }
+
+    public void setDotSpacing(int dotSpacing) {
+        this.mDotSpacing = dotSpacing;
+        if (dotSpacing >= 0) {
+            this.mDotDelta = dotSpacing;
+        }
+
+        this.updateLayout();
+        ++this.mGeneration;
+    }
+
+    public void setDotAlpha(float dotAlpha, float dotAlphaMin) {
+        this.setGeometry(new IndicatorGeometry(this.mDotVisibleCount, this.mDotRadius, this.mDotRadiusMin, dotAlpha, dotAlphaMin));
+    }
+
+    public float getDotAlpha() {
+        return this.mDotAlpha;
+    }
+
+    public float getDotAlphaMin() {
+        return this.mDotAlphaMin;
+    }
+
+    public void setSections(IndicatorSectionIndex sections) {
+        this.mSections = sections;
+        this.mCurrentSection = -1;
+    }
+
+    public IndicatorSectionIndex getSections() {
+        return this.mSections;
+    }
+
+    public int getCurrentSection() {
+        return this.mCurrentSection;
+    }
+
+    public boolean setSectionScrollPosition(float percent, long position) {
+        IndicatorSectionIndex sections = this.mSections;
+        if (sections == null) {
+            return false;
+        }
+        int section = this.mCurrentSection;
+        if (!sections.contains(section, position)) {
+            section = sections.findSection(position);
+            if (section < 0) {
+                return false;
+            }
+            this.mCurrentSection = section;
+            this.mPageFirstIndex = 0;
+            this.setSelectedIndex((int)(position - sections.getSectionStart(section)), sections.getSectionSize(section));
+        }
+
+        return this.setScrollPosition(percent, (int)(position - sections.getSectionStart(section)));
+    }
+
+    public void setDotCount(int dotCount) {
+        this.setCount(dotCount);
+        this.mPageFirstIndex = 0;
+    }
+
+    public void setDotCountAndStartPosition(int firstIndex, int count) {
+        this.mPageFirstIndex = firstIndex;
+        this.setCount(count);
+    }
+
+    public void setSelectedIndex(int selectedIndex, int dotCount) {
+        this.mCurrentSelectedIndex = selectedIndex;
+        this.mNextSelectedIndex = selectedIndex;
+        this.setCount(dotCount);
+        this.mFirstVisibleIndex = this.windowFor(selectedIndex);
+    }
+
+    private void setCount(int dotCount) {
+        if (this.mDotCount != dotCount) {
+            this.mDotCount = dotCount;
+            this.updateLayout();
+            ++this.mGeneration;
+        }
+    }
+
+    private int windowFor(int selectedIndex) {
+        if (this.mDotCount <= this.mDotVisibleCount) {
+            return 0;
+        } else {
+            int first = selectedIndex - this.mDotVisibleCount / 2;
+            return first < 0 ? 0 : Math.min(first, this.mDotCount - this.mDotVisibleCount);
+        }
+    }
+
+    public void setViewport(int width, int height, int paddingTop, int paddingBottom) {
+        if (width != this.mWidth || height != this.mHeight || paddingTop != this.mPaddingTop || paddingBottom != this.mPaddingBottom) {
+            this.mWidth = width;
+            this.mHeight = height;
+            this.mPaddingTop = paddingTop;
+            this.mPaddingBottom = paddingBottom;
+            this.mRenderedCount = -1;
+            this.updateLayout();
+            ++this.mGeneration;
+        }
+    }
+
+    // a parent re-measuring to the same size keeps the generation, and with it the recorded layer
+    public void measure(int measuredHeight, int paddingTop, int paddingBottom) {
+        int dotDelta;
+        if (this.mDotSpacing >= 0) {
+            dotDelta = this.mDotSpacing;
+        } else {
+            int drawHeight = measuredHeight - paddingTop - paddingBottom;
+            dotDelta = (drawHeight - (this.mDotVisibleCount + 2) * this.mDotRadius * 2) / (this.mDotVisibleCount + 1);
+        }
+
+        if (dotDelta != this.mDotDelta || paddingTop != this.mPaddingTop || paddingBottom != this.mPaddingBottom) {
+            this.mDotDelta = dotDelta;
+            this.mPaddingTop = paddingTop;
+            this.mPaddingBottom = paddingBottom;
+            this.updateLayout();
+            ++this.mGeneration;
+        }
+    }
+
+    private void updateLayout() {
+        int radius = this.mDotRadius;
+        int count = this.mDotCount;
+        this.mPitch = (float)(radius * 2 + this.mDotDelta);
+        this.mStartX = (float)(this.mWidth / 2);
+        this.mNormalStartY = (float)((this.mHeight - this.mPaddingTop - this.mPaddingBottom - count * radius * 2 - this.mDotDelta * (count - 1)) / 2 + radius);
+        this.mWindowStartY = (float)(this.mPaddingTop + radius * 3 + this.mDotDelta);
+        this.mClipLeft = this.mStartX - (float)radius - 1.0F;
+        this.mClipTop = 0.0F;
+        this.mClipRight = this.mStartX + (float)radius + 1.0F;
+        this.mClipBottom = (float)this.mHeight;
+    }
+
+    public boolean setScrollPosition(float percent, int index) {
+        if (index >= this.mPageFirstIndex + this.mDotCount - 1) {
+            return false;
+        }
+        index -= this.mPageFirstIndex;
+        if (index < 0) {
+            return false;
+        }
+        if (percent == 0.0F) {
+            this.mCurrentSelectedIndex = index;
+            this.mNextSelectedIndex = index;
+        } else if (this.mStartedPercent == 0.0F) {
+            this.mStartedPercent = percent;
+        } else if (index == this.mCurrentSelectedIndex) {
+            this.mNextSelectedIndex = index + 1;
+        } else if (index + 1 == this.mCurrentSelectedIndex) {
+            this.mNextSelectedIndex = index;
+        } else if (index > this.mCurrentSelectedIndex) {
+            this.mNextSelectedIndex = index;
+            this.mCurrentSelectedIndex = index + 1;
+        } else {
+            this.mCurrentSelectedIndex = index;
+            this.mNextSelectedIndex = index + 1;
+        }
+
+        this.mFirstVisibleIndex = this.windowFor(this.mCurrentSelectedIndex);
+        this.mScrollPercent = percent;
+        return true;
+    }
+
+    public int getFrameCount() {
+        return this.mFrameCount;
+    }
+
+    public int getFrameBranch() {
+        return this.mFrameBranch;
+    }
+
+    public float[] getFrameX() {
+        return this.mFrameX;
+    }
+
+    public float[] getFrameY() {
+        return this.mFrameY;
+    }
+
+    public float[] getFrameRadius() {
+        return this.mFrameRadius;
+    }
+
+    public int[] getFrameAlpha() {
+        return this.mFrameAlpha;
+    }
+
+    public boolean[] getFrameStatic() {
+        return this.mFrameStatic;
+    }
+
+    public float getFrameTranslationY() {
+        return this.mFrameTranslationY;
+    }
+
+    public int getFrameWindowFirst() {
+        return this.mFrameWindowFirst;
+    }
+
+    public boolean isFrameShifting() {
+        return this.mFrameShifting;
+    }
+
+    // shifting dots jump between their end radii halfway instead of resizing every frame
+    public void setSnapRadius(boolean snapRadius) {
+        this.mSnapRadius = snapRadius;
+    }
+
+    public boolean isSnapRadius() {
+        return this.mSnapRadius;
+    }
+
+    public int getGeneration() {
+        return this.mGeneration;
+    }
+
+    public int computeFrame() {
+        IndicatorGeometry geometry = this.mGeometry;
+        int visible = this.mDotVisibleCount;
+        int count = this.mDotCount;
+        int current = this.mCurrentSelectedIndex;
+        int next = this.mNextSelectedIndex;
+        float pitch = this.mPitch;
+        float rx = this.mStartX;
+        float t = next > current ? -this.mScrollPercent : (next < current ? 1.0F + this.mScrollPercent : 0.0F);
+        t = t < 0.0F ? 0.0F : (t > 1.0F ? 1.0F : t);
+        float[] x = this.mFrameX;
+        float[] y = this.mFrameY;
+        float[] radius = this.mFrameRadius;
+        float[] alpha = this.mSlotAlpha;
+        boolean[] still = this.mFrameStatic;
+        boolean shifting = false;
+        int first;
+        int slots;
+        if (count <= visible) {
+            this.mFrameBranch = next == current ? BRANCH_NONE_NORMAL : (next > current ? BRANCH_UP_NORMAL : BRANCH_DOWN_NORMAL);
+            first = 0;
+            slots = Math.max(0, count);
+            float y0 = this.mNormalStartY;
+
+            for(int i = 0; i < slots; ++i) {
+                x[i] = rx;
+                y[i] = y0 + (float)i * pitch;
+                radius[i] = (float)this.mDotRadius;
+                alpha[i] = this.mDotAlphaMin;
+                still[i] = true;
+            }
+
+            this.mScrollY = 0.0F;
+        } else {
+            int currentWindow = this.windowFor(current);
+            int nextWindow = this.windowFor(next);
+            float u;
+            if (this.mWindowAnimating) {
+                this.mFrameBranch = this.mWindowTo > (int)this.mWindowFrom ? BRANCH_UP : BRANCH_DOWN;
+                first = Math.min((int)this.mWindowPosition, count - visible);
+                u = first == count - visible ? 0.0F : this.mWindowPosition - (float)first;
+            } else {
+                this.mFrameBranch = next == current ? BRANCH_NONE : (next > current ? BRANCH_UP : BRANCH_DOWN);
+                first = Math.min(currentWindow, nextWindow);
+                u = currentWindow == nextWindow ? 0.0F : (nextWindow > currentWindow ? t : 1.0F - t);
+            }
+            float y0 = this.mWindowStartY;
+            int stride = visible + 1;
+            if (this.mWindowAnimating ? u == 0.0F : currentWindow == nextWindow) {
+                slots = visible;
+                int base = ((first == 0 ? 1 : 0) | (first == count - visible ? 2 : 0)) * stride;
+
+                float[] staticRadius = geometry.getStaticRadius();
+
+                for(int i = 0; i < slots; ++i) {
+                    x[i] = rx;
+                    y[i] = y0 + (float)i * pitch;
+                    radius[i] = staticRadius[base + i];
+                    alpha[i] = this.mDotAlphaMin;
+                    still[i] = true;
+                }
+
+                this.mScrollY = 0.0F;
+            } else {
+                slots = stride;
+                int base = ((first == 0 ? 1 : 0) | (first + 1 == count - visible ? 2 : 0)) * stride;
+                float shiftY = y0 - u * pitch;
+                float[] shiftRadius0 = geometry.getShiftRadius0();
+                float[] shiftRadius1 = geometry.getShiftRadius1();
+                float[] shiftAlpha0 = geometry.getShiftAlpha0();
+                float[] shiftAlpha1 = geometry.getShiftAlpha1();
+
+                for(int i = 0; i < slots; ++i) {
+                    float r0 = shiftRadius0[base + i];
+                    float r1 = shiftRadius1[base + i];
+                    float a0 = shiftAlpha0[base + i];
+                    float a1 = shiftAlpha1[base + i];
+                    x[i] = rx;
+                    y[i] = shiftY + (float)i * pitch;
+                    radius[i] = this.mSnapRadius ? (u < 0.5F ? r0 : r1) : r0 + (r1 - r0) * u;
+                    alpha[i] = this.mDotAlphaMin * (a0 + (a1 - a0) * u);
+                    still[i] = r0 == r1 && a0 == a1;
+                }
+
+                shifting = true;
+                this.mScrollY = -u * pitch;
+            }
+        }
+
+        int selected = current - first;
+        if (selected >= 0 && selected < slots) {
+            alpha[selected] = this.mDotAlpha + (this.mDotAlphaMin - this.mDotAlpha) * t;
+            still[selected] = false;
+        }
+        int nextSelected = next - first;
+        if (next != current && nextSelected >= 0 && nextSelected < slots) {
+            alpha[nextSelected] = this.mDotAlphaMin + (this.mDotAlpha - this.mDotAlphaMin) * t;
+            still[nextSelected] = false;
+        }
+
+        int[] frameAlpha = this.mFrameAlpha;
+        int frameCount = 0;
+
+        for(int i = 0; i < slots; ++i) {
+            int a = (int)(alpha[i] * 255.0F);
+            if (a > 0 && radius[i] > 0.0F) {
+                x[frameCount] = x[i];
+                y[frameCount] = y[i];
+                radius[frameCount] = radius[i];
+                frameAlpha[frameCount] = a;
+                still[frameCount] = still[i];
+                ++frameCount;
+            }
+        }
+
+        this.mFrameCount = frameCount;
+        this.mFrameTranslationY = this.mScrollY;
+        this.mFrameWindowFirst = first;
+        this.mFrameShifting = shifting;
+        return frameCount;
+    }
+
+    public float getWindowPosition() {
+        if (this.mWindowAnimating) {
+            return this.mWindowPosition;
+        } else {
+            int currentWindow = this.windowFor(this.mCurrentSelectedIndex);
+            int nextWindow = this.windowFor(this.mNextSelectedIndex);
+            if (currentWindow == nextWindow) {
+                return (float)currentWindow;
+            } else {
+                float t = nextWindow > currentWindow ? -this.mScrollPercent : 1.0F + this.mScrollPercent;
+                t = t < 0.0F ? 0.0F : (t > 1.0F ? 1.0F : t);
+                return (float)Math.min(currentWindow, nextWindow) + (nextWindow > currentWindow ? t : 1.0F - t);
+            }
+        }
+    }
+
+    public int getWindowFor(int selectedIndex) {
+        return this.windowFor(selectedIndex);
+    }
+
+    public boolean isWindowAnimating() {
+        return this.mWindowAnimating;
+    }
+
+    public int getWindowAnimationTarget() {
+        return this.mWindowTo;
+    }
+
+    // the window slides from a (possibly fractional) first visible index to the target however far apart they are
+    public void animateWindow(float fromFirst, int toFirst, long nowMillis, long durationMillis) {
+        if (this.mDotCount > this.mDotVisibleCount && durationMillis > 0L && fromFirst != (float)toFirst) {
+            float max = (float)(this.mDotCount - this.mDotVisibleCount);
+            this.mWindowFrom = fromFirst < 0.0F ? 0.0F : (fromFirst > max ? max : fromFirst);
+            this.mWindowTo = Math.max(0, Math.min(toFirst, this.mDotCount - this.mDotVisibleCount));
+            this.mWindowPosition = this.mWindowFrom;
+            this.mWindowStartTime = nowMillis;
+            this.mWindowDuration = durationMillis;
+            this.mWindowAnimating = this.mWindowFrom != (float)this.mWindowTo;
+        } else {
+            this.mWindowAnimating = false;
+        }
+    }
+
+    public boolean stepWindowAnimation(long nowMillis) {
+        if (!this.mWindowAnimating) {
+            return false;
+        } else {
+            float fraction = (float)(nowMillis - this.mWindowStartTime) / (float)this.mWindowDuration;
+            if (fraction >= 1.0F) {
+                this.mWindowPosition = (float)this.mWindowTo;
+                this.mWindowAnimating = false;
+            } else {
+                float inverse = 1.0F - Math.max(0.0F, fraction);
+                this.mWindowPosition = this.mWindowFrom + ((float)this.mWindowTo - this.mWindowFrom) * (1.0F - inverse * inverse);
+            }
+
+            return this.mWindowAnimating;
+        }
+    }
+
+    public void cancelWindowAnimation() {
+        this.mWindowAnimating = false;
+    }
+
+    // selects the dot directly and slides the window to it, skipping every index in between
+    public void jumpToDot(int dotIndex, long nowMillis, long durationMillis) {
+        float from = this.getWindowPosition();
+        int dot = Math.max(0, Math.min(dotIndex, this.mDotCount - 1));
+        this.mCurrentSelectedIndex = dot;
+        this.mNextSelectedIndex = dot;
+        this.mScrollPercent = 0.0F;
+        this.mFirstVisibleIndex = this.windowFor(dot);
+        this.animateWindow(from, this.mFirstVisibleIndex, nowMillis, durationMillis);
+    }
+
+    public int findDotAt(float y) {
+        int count = this.mDotCount;
+        int visible = this.mDotVisibleCount;
+        if (count > 0 && this.mPitch > 0.0F) {
+            if (count <= visible) {
+                return Math.max(0, Math.min(Math.round((y - this.mNormalStartY) / this.mPitch), count - 1));
+            } else {
+                int first = this.mWindowAnimating ? Math.round(this.mWindowPosition) : this.mFirstVisibleIndex;
+                first = Math.max(0, Math.min(first, count - visible));
+                return first + Math.max(0, Math.min(Math.round((y - this.mWindowStartY) / this.mPitch), visible - 1));
+            }
+        } else {
+            return -1;
+        }
+    }
+
+    public long getAdapterPosition(int dotIndex) {
+        IndicatorSectionIndex sections = this.mSections;
+        return sections != null && this.mCurrentSection >= 0 ? sections.getSectionStart(this.mCurrentSection) + (long)dotIndex : (long)(this.mPageFirstIndex + dotIndex);
+    }
+
+    // first adapter item of the dot when every dot stands for itemsPerDot items, as a grid row does
+    public long getItemPosition(int dotIndex, int itemsPerDot) {
+        return this.getAdapterPosition(dotIndex) * (long)itemsPerDot;
+    }
+
+    public boolean onItemRangeInserted(int positionStart, int itemCount) {
+        if (this.mSections == null && itemCount > 0) {
+            int start = positionStart - this.mPageFirstIndex;
+            if (start < 0) {
+                this.mPageFirstIndex += itemCount;
+                return false;
+            } else if (start > this.mDotCount) {
+                return false;
+            } else {
+                float window = this.getWindowPosition();
+                if (this.mCurrentSelectedIndex >= start) {
+                    this.mCurrentSelectedIndex += itemCount;
+                }
+                if (this.mNextSelectedIndex >= start) {
+                    this.mNextSelectedIndex += itemCount;
+                }
+
+                this.setCount(this.mDotCount + itemCount);
+                this.mFirstVisibleIndex = this.windowFor(this.mCurrentSelectedIndex);
+                this.setDisplacedWindowPosition((float)start <= window ? window + (float)itemCount : window);
+                return true;
+            }
+        } else {
+            return false;
+        }
+    }
+
+    public boolean onItemRangeRemoved(int positionStart, int itemCount) {
+        if (this.mSections == null && itemCount > 0) {
+            int start = positionStart - this.mPageFirstIndex;
+            int end = start + itemCount;
+            if (end <= 0) {
+                this.mPageFirstIndex -= itemCount;
+                return false;
+            } else if (start >= this.mDotCount) {
+                return false;
+            } else {
+                float window = this.getWindowPosition();
+                if (start < 0) {
+                    this.mPageFirstIndex = positionStart;
+                    start = 0;
+                }
+
+                end = Math.min(end, this.mDotCount);
+                int count = this.mDotCount - (end - start);
+                this.mCurrentSelectedIndex = removedIndex(this.mCurrentSelectedIndex, start, end, count);
+                this.mNextSelectedIndex = removedIndex(this.mNextSelectedIndex, start, end, count);
+                this.setCount(count);
+                this.mFirstVisibleIndex = this.windowFor(this.mCurrentSelectedIndex);
+                this.setDisplacedWindowPosition((float)end <= window ? window - (float)(end - start) : ((float)start < window ? (float)start : window));
+                return true;
+            }
+        } else {
+            return false;
+        }
+    }
+
+    public boolean onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+        if (this.mSections == null && itemCount > 0) {
+            int from = fromPosition - this.mPageFirstIndex;
+            int to = toPosition - this.mPageFirstIndex;
+            if (from >= 0 && to >= 0 && from + itemCount <= this.mDotCount && to + itemCount <= this.mDotCount) {
+                this.setDisplacedWindowPosition(this.getWindowPosition());
+                this.mCurrentSelectedIndex = movedIndex(this.mCurrentSelectedIndex, from, to, itemCount);
+                this.mNextSelectedIndex = movedIndex(this.mNextSelectedIndex, from, to, itemCount);
+                this.mFirstVisibleIndex = this.windowFor(this.mCurrentSelectedIndex);
+                ++this.mGeneration;
+                return true;
+            } else {
+                boolean removed = this.onItemRangeRemoved(fromPosition, itemCount);
+                return this.onItemRangeInserted(toPosition, itemCount) || removed;
+            }
+        } else {
+            return false;
+        }
+    }
+
+    // where the previously displayed window sits after a data change, the start of the window animation that hides the jump
+    public float getDisplacedWindowPosition() {
+        return this.mDisplacedWindowPosition;
+    }
+
+    private void setDisplacedWindowPosition(float window) {
+        float max = (float)Math.max(0, this.mDotCount - this.mDotVisibleCount);
+        this.mDisplacedWindowPosition = window < 0.0F ? 0.0F : (window > max ? max : window);
+    }
+
+    private static int removedIndex(int index, int start, int end, int count) {
+        if (index >= end) {
+            index -= end - start;
+        } else if (index >= start) {
+            index = start;
+        }
+
+        return Math.max(0, Math.min(index, count - 1));
+    }
+
+    private static int movedIndex(int index, int from, int to, int itemCount) {
+        if (index >= from && index < from + itemCount) {
+            return index + to - from;
+        } else {
+            if (index >= from + itemCount) {
+                index -= itemCount;
+            }
+            if (index >= to) {
+                index += itemCount;
+            }
+
+            return index;
+        }
+    }
+
+    public void renderFrame(DotSink sink) {
+        int count = this.mFrameCount;
+
+        for(int i = 0; i < count; ++i) {
+            sink.drawDot(this.mFrameX[i], this.mFrameY[i], this.mFrameRadius[i], this.mFrameAlpha[i]);
+        }
+
+    }
+
+    public void markFrameRendered() {
+        int count = this.mFrameCount;
+        System.arraycopy(this.mFrameX, 0, this.mRenderedX, 0, count);
+        System.arraycopy(this.mFrameY, 0, this.mRenderedY, 0, count);
+        System.arraycopy(this.mFrameRadius, 0, this.mRenderedRadius, 0, count);
+        System.arraycopy(this.mFrameAlpha, 0, this.mRenderedAlpha, 0, count);
+        this.mRenderedCount = count;
+    }
+
+    public int computeDirtyBounds(float[] bounds) {
+        if (this.mRenderedCount < 0) {
+            return DIRTY_ALL;
+        }
+        bounds[0] = Float.MAX_VALUE;
+        bounds[1] = Float.MAX_VALUE;
+        bounds[2] = -Float.MAX_VALUE;
+        bounds[3] = -Float.MAX_VALUE;
+        int count = this.mFrameCount;
+        int renderedCount = this.mRenderedCount;
+        int max = Math.max(count, renderedCount);
+
+        for(int i = 0; i < max; ++i) {
+            if (i < count && i < renderedCount && Math.round(this.mFrameX[i]) == Math.round(this.mRenderedX[i]) && Math.round(this.mFrameY[i]) == Math.round(this.mRenderedY[i]) && Math.round(this.mFrameRadius[i] * 4.0F) == Math.round(this.mRenderedRadius[i] * 4.0F) && this.mFrameAlpha[i] == this.mRenderedAlpha[i]) {
+                continue;
+            }
+            if (i < count) {
+                unionDot(bounds, this.mFrameX[i], this.mFrameY[i], this.mFrameRadius[i]);
+            }
+            if (i < renderedCount) {
+                unionDot(bounds, this.mRenderedX[i], this.mRenderedY[i], this.mRenderedRadius[i]);
+            }
+        }
+
+        bounds[0] = Math.max(bounds[0], this.mClipLeft);
+        bounds[1] = Math.max(bounds[1], this.mClipTop);
+        bounds[2] = Math.min(bounds[2], this.mClipRight);
+        bounds[3] = Math.min(bounds[3], this.mClipBottom);
+        return bounds[0] >= bounds[2] || bounds[1] >= bounds[3] ? DIRTY_NONE : DIRTY_REGION;
+    }
+
+    private static void unionDot(float[] bounds, float x, float y, float radius) {
+        float r = Math.abs(radius) + 1.0F;
+        bounds[0] = Math.min(bounds[0], x - r);
+        bounds[1] = Math.min(bounds[1], y - r);
+        bounds[2] = Math.max(bounds[2], x + r);
+        bounds[3] = Math.max(bounds[3], y + r);
+    }
+
+    private void ensureFrameCapacity(int capacity) {
+        if (this.mFrameX == null || this.mFrameX.length < capacity) {
+            this.mFrameX = new float[capacity];
+            this.mFrameY = new float[capacity];
+            this.mFrameRadius = new float[capacity];
+            this.mFrameAlpha = new int[capacity];
+            this.mSlotAlpha = new float[capacity];
+            this.mFrameStatic = new boolean[capacity];
+            this.mRenderedX = new float[capacity];
+            this.mRenderedY = new float[capacity];
+            this.mRenderedRadius = new float[capacity];
+            this.mRenderedAlpha = new int[capacity];
+            this.mRenderedCount = -1;
+        }
+
+    }
+}
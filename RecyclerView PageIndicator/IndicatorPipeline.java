@@ -0,0 +1,133 @@
+
+// the plain-Java part of the scroll and draw steps, run by PageIndicator and by the allocation gate alike
+public final class IndicatorPipeline {
+    private final IndicatorModel mModel;
+    private final float[] mDirtyBounds = new float[4];
+    private IndicatorTracer mTracer;
+    private IndicatorMetrics mMetrics;
+    private QualityGovernor mQualityGovernor;
+    private long mDrawStart;
+
+    public IndicatorPipeline(IndicatorModel model) {
+        this.mModel = model;
+    }
+
+    public IndicatorModel getModel() {
+        return this.mModel;
+    }
+
+    public void setTracer(IndicatorTracer tracer) {
+        this.mTracer = tracer;
+    }
+
+    public IndicatorTracer getTracer() {
+        return this.mTracer;
+    }
+
+    public void setMetrics(IndicatorMetrics metrics) {
+        this.mMetrics = metrics;
+    }
+
+    public IndicatorMetrics getMetrics() {
+        return this.mMetrics;
+    }
+
+    public void setQualityGovernor(QualityGovernor qualityGovernor) {
+        this.mQualityGovernor = qualityGovernor;
+    }
+
+    public QualityGovernor getQualityGovernor() {
+        return this.mQualityGovernor;
+    }
+
+    public void onScrolled(int dy, int index, float percent) {
+        if (this.mTracer != null) {
+            this.mTracer.record(IndicatorTracer.EVENT_SCROLLED, index, (float)dy, percent);
+        }
+
+    }
+
+    // index is an adapter position; returns the IndicatorModel.DIRTY_* invalidation the update needs
+    public int applyScrollPosition(float percent, int index) {
+        IndicatorModel model = this.mModel;
+        IndicatorMetrics metrics = this.mMetrics;
+        long start = metrics != null ? System.nanoTime() : 0L;
+        int dirty;
+        if (model.getSections() != null) {
+            dirty = this.applySectionScrollPosition(percent, (long)index);
+        } else if (model.setScrollPosition(percent, index)) {
+            dirty = this.onScrollPositionApplied(percent, index - model.getPageFirstIndex());
+        } else {
+            dirty = IndicatorModel.DIRTY_NONE;
+        }
+
+        if (metrics != null) {
+            metrics.recordScrollPosition(System.nanoTime() - start);
+        }
+
+        return dirty;
+    }
+
+    public int applySectionScrollPosition(float percent, long position) {
+        IndicatorModel model = this.mModel;
+        return model.setSectionScrollPosition(percent, position) ? this.onScrollPositionApplied(percent, (int)(position - model.getSections().getSectionStart(model.getCurrentSection()))) : IndicatorModel.DIRTY_NONE;
+    }
+
+    private int onScrollPositionApplied(float percent, int dotIndex) {
+        IndicatorModel model = this.mModel;
+        IndicatorTracer tracer = this.mTracer;
+        if (tracer != null) {
+            tracer.record(IndicatorTracer.EVENT_SCROLL_POSITION, dotIndex, percent, model.getStartedPercent());
+            tracer.record(IndicatorTracer.EVENT_SELECTION, model.getCurrentSelectedIndex(), (float)model.getNextSelectedIndex(), model.getScrollY());
+        }
+
+        return this.invalidateFrame();
+    }
+
+    public int invalidateFrame() {
+        this.mModel.computeFrame();
+        return this.mModel.computeDirtyBounds(this.mDirtyBounds);
+    }
+
+    // left, top, right, bottom of the last DIRTY_REGION
+    public float[] getDirtyBounds() {
+        return this.mDirtyBounds;
+    }
+
+    // lays out the frame to render; returns true while the window animation needs another frame
+    public boolean beginDraw(long nowMillis) {
+        IndicatorModel model = this.mModel;
+        this.mDrawStart = this.mMetrics != null || this.mQualityGovernor != null ? System.nanoTime() : 0L;
+        boolean animating = model.stepWindowAnimation(nowMillis);
+        int count = model.computeFrame();
+        IndicatorTracer tracer = this.mTracer;
+        if (tracer != null) {
+            float[] y = model.getFrameY();
+            float[] radius = model.getFrameRadius();
+            tracer.record(IndicatorTracer.EVENT_BRANCH, model.getFrameBranch(), model.getScrollY(), (float)count);
+
+            for(int i = 0; i < count; ++i) {
+                tracer.record(IndicatorTracer.EVENT_DOT, i, radius[i], y[i]);
+            }
+        }
+
+        return animating;
+    }
+
+    public void endDraw() {
+        IndicatorModel model = this.mModel;
+        model.markFrameRendered();
+        IndicatorMetrics metrics = this.mMetrics;
+        QualityGovernor governor = this.mQualityGovernor;
+        if (metrics != null || governor != null) {
+            long nanos = System.nanoTime() - this.mDrawStart;
+            if (metrics != null) {
+                metrics.recordDraw(model.getFrameBranch(), nanos);
+            }
+            if (governor != null) {
+                governor.recordDraw(nanos);
+            }
+        }
+
+    }
+}
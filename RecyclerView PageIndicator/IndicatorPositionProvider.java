@@ -0,0 +1,13 @@
+
+import android.support.annotation.NonNull;
+import android.support.v7.widget.RecyclerView;
+
+public interface IndicatorPositionProvider {
+    boolean update(@NonNull RecyclerView recyclerView, int dx, int dy);
+
+    int getIndex();
+
+    float getPercent();
+
+    void invalidate();
+}
@@ -0,0 +1,245 @@
+
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.v7.widget.GridLayoutManager;
+import android.support.v7.widget.LinearLayoutManager;
+import android.support.v7.widget.PagerSnapHelper;
+import android.support.v7.widget.RecyclerView;
+import android.support.v7.widget.RecyclerView.LayoutManager;
+import android.support.v7.widget.RecyclerView.OnScrollListener;
+import android.support.v7.widget.SnapHelper;
+import android.widget.Scroller;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.WeakHashMap;
+
+public final class IndicatorScrollDispatcher extends OnScrollListener {
+    // the provider reaches the RecyclerView through its layout manager, so the dispatcher is only held weakly here and kept alive by the RecyclerView's listener list
+    private static final WeakHashMap<RecyclerView, WeakReference<IndicatorScrollDispatcher>> sDispatchers = new WeakHashMap<>();
+    // indicators reach the RecyclerView through their context, a dropped indicator must not keep the screen alive
+    private final ArrayList<WeakReference<PageIndicator>> mIndicators = new ArrayList<>();
+    private IndicatorPositionProvider mPositionProvider;
+    private Scroller mFlingScroller;
+    private int mScrollState = RecyclerView.SCROLL_STATE_IDLE;
+    private long mLastScrollTime = -1L;
+    private int mPendingDx;
+    private int mPendingDy;
+    private float mVelocityX;
+    private float mVelocityY;
+    private int mFlingTarget = RecyclerView.NO_POSITION;
+    private int mFlingDuration;
+
+    private IndicatorScrollDispatcher(@NonNull IndicatorPositionProvider positionProvider) {
+        this.mPositionProvider = positionProvider;
+    }
+
+    @Nullable
+    public static IndicatorPositionProvider createPositionProvider(@NonNull RecyclerView recyclerView) {
+        LayoutManager layoutManager = recyclerView.getLayoutManager();
+        if (layoutManager instanceof GridLayoutManager) {
+            return new GridPositionProvider((GridLayoutManager)layoutManager);
+        } else if (layoutManager instanceof LinearLayoutManager) {
+            return (IndicatorPositionProvider)(recyclerView.getOnFlingListener() instanceof PagerSnapHelper ? new PagerSnapPositionProvider((LinearLayoutManager)layoutManager) : new LinearPositionProvider((LinearLayoutManager)layoutManager));
+        } else {
+            return null;
+        }
+    }
+
+    @Nullable
+    public static IndicatorScrollDispatcher peek(@NonNull RecyclerView recyclerView) {
+        WeakReference<IndicatorScrollDispatcher> reference = sDispatchers.get(recyclerView);
+        return reference == null ? null : reference.get();
+    }
+
+    @Nullable
+    public static IndicatorScrollDispatcher obtain(@NonNull RecyclerView recyclerView) {
+        IndicatorScrollDispatcher dispatcher = peek(recyclerView);
+        if (dispatcher == null) {
+            IndicatorPositionProvider positionProvider = createPositionProvider(recyclerView);
+            if (positionProvider != null) {
+                dispatcher = obtain(recyclerView, positionProvider);
+            }
+        }
+
+        return dispatcher;
+    }
+
+    // every indicator on a RecyclerView shares one provider, swapping it under registered indicators is rejected
+    @NonNull
+    public static IndicatorScrollDispatcher obtain(@NonNull RecyclerView recyclerView, @NonNull IndicatorPositionProvider positionProvider) {
+        IndicatorScrollDispatcher dispatcher = peek(recyclerView);
+        if (dispatcher == null) {
+            dispatcher = new IndicatorScrollDispatcher(positionProvider);
+            sDispatchers.put(recyclerView, new WeakReference<>(dispatcher));
+            recyclerView.addOnScrollListener(dispatcher);
+        } else if (dispatcher.mPositionProvider != positionProvider) {
+            if (dispatcher.getIndicatorCount() > 0) {
+                throw new IllegalStateException("RecyclerView already dispatches to indicators with another position provider");
+            }
+
+            dispatcher.mPositionProvider = positionProvider;
+        }
+
+        return dispatcher;
+    }
+
+    @NonNull
+    public IndicatorPositionProvider getPositionProvider() {
+        return this.mPositionProvider;
+    }
+
+    public int getIndicatorCount() {
+        this.prune(null);
+        return this.mIndicators.size();
+    }
+
+    public boolean isRegistered(@NonNull PageIndicator indicator) {
+        ArrayList<WeakReference<PageIndicator>> indicators = this.mIndicators;
+
+        for(int i = 0; i < indicators.size(); ++i) {
+            if (indicators.get(i).get() == indicator) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    public void register(@NonNull PageIndicator indicator) {
+        if (!this.isRegistered(indicator)) {
+            this.mIndicators.add(new WeakReference<>(indicator));
+        }
+    }
+
+    public void unregister(@NonNull RecyclerView recyclerView, @NonNull PageIndicator indicator) {
+        this.prune(indicator);
+        if (this.mIndicators.isEmpty() && peek(recyclerView) == this) {
+            sDispatchers.remove(recyclerView);
+            recyclerView.removeOnScrollListener(this);
+        }
+
+    }
+
+    // drops collected indicators and the given one
+    private void prune(PageIndicator indicator) {
+        ArrayList<WeakReference<PageIndicator>> indicators = this.mIndicators;
+
+        for(int i = indicators.size() - 1; i >= 0; --i) {
+            PageIndicator registered = indicators.get(i).get();
+            if (registered == null || registered == indicator) {
+                indicators.remove(i);
+            }
+        }
+
+    }
+
+    // provider index (a row for grids) the snap helper settles a fling released from a drag on, or NO_POSITION; valid while the SETTLING state is dispatched
+    public int getFlingTarget() {
+        return this.mFlingTarget;
+    }
+
+    public int getFlingDuration() {
+        return this.mFlingDuration;
+    }
+
+    public void onScrollStateChanged(RecyclerView recyclerView, int newState) {
+        super.onScrollStateChanged(recyclerView, newState);
+        int oldState = this.mScrollState;
+        this.mScrollState = newState;
+        this.mFlingTarget = RecyclerView.NO_POSITION;
+        if (newState == RecyclerView.SCROLL_STATE_DRAGGING) {
+            this.resetVelocity();
+        } else if (newState == RecyclerView.SCROLL_STATE_SETTLING && oldState == RecyclerView.SCROLL_STATE_DRAGGING) {
+            // the fling listener belongs to the app or its snap helper, so it is asked rather than replaced
+            this.estimateFlingTarget(recyclerView);
+        }
+        ArrayList<WeakReference<PageIndicator>> indicators = this.mIndicators;
+
+        for(int i = 0; i < indicators.size(); ++i) {
+            PageIndicator indicator = indicators.get(i).get();
+            if (indicator == null) {
+                indicators.remove(i--);
+            } else {
+                indicator.onDispatchedScrollStateChanged(recyclerView, this.mPositionProvider, newState);
+            }
+        }
+
+        this.mFlingTarget = RecyclerView.NO_POSITION;
+    }
+
+    private void resetVelocity() {
+        this.mLastScrollTime = -1L;
+        this.mPendingDx = 0;
+        this.mPendingDy = 0;
+        this.mVelocityX = 0.0F;
+        this.mVelocityY = 0.0F;
+    }
+
+    // pixels per second of the drag's last frame; it gives the direction of the release, not the fling's exact speed
+    private void trackVelocity(int dx, int dy) {
+        long now = SystemClock.uptimeMillis();
+        long elapsed = now - this.mLastScrollTime;
+        this.mPendingDx += dx;
+        this.mPendingDy += dy;
+        if (this.mLastScrollTime < 0L || elapsed > 100L) {
+            this.mVelocityX = 0.0F;
+            this.mVelocityY = 0.0F;
+        } else if (elapsed > 0L) {
+            this.mVelocityX = (float)this.mPendingDx * 1000.0F / (float)elapsed;
+            this.mVelocityY = (float)this.mPendingDy * 1000.0F / (float)elapsed;
+        } else {
+            return;
+        }
+
+        this.mLastScrollTime = now;
+        this.mPendingDx = 0;
+        this.mPendingDy = 0;
+    }
+
+    // only a snap helper decides where a fling stops, and a pager needs no more than the release direction to say so;
+    // without one no target is given and the indicator follows the fling page by page
+    private void estimateFlingTarget(RecyclerView recyclerView) {
+        LayoutManager layoutManager = recyclerView.getLayoutManager();
+        int velocityX = (int)this.mVelocityX;
+        int velocityY = (int)this.mVelocityY;
+        if (layoutManager != null && recyclerView.getOnFlingListener() instanceof SnapHelper && (velocityX != 0 || velocityY != 0)) {
+            int position = ((SnapHelper)recyclerView.getOnFlingListener()).findTargetSnapPosition(layoutManager, velocityX, velocityY);
+            if (position != RecyclerView.NO_POSITION) {
+                if (this.mFlingScroller == null) {
+                    this.mFlingScroller = new Scroller(recyclerView.getContext());
+                }
+
+                Scroller scroller = this.mFlingScroller;
+                scroller.fling(0, 0, velocityX, velocityY, Integer.MIN_VALUE, Integer.MAX_VALUE, Integer.MIN_VALUE, Integer.MAX_VALUE);
+                this.mFlingDuration = scroller.getDuration();
+                scroller.forceFinished(true);
+                // the snap helper answers in adapter positions, indicators count in provider indices
+                IndicatorPositionProvider provider = this.mPositionProvider;
+                this.mFlingTarget = provider instanceof GridPositionProvider ? position / ((GridPositionProvider)provider).getSpanCount() : position;
+            }
+        }
+
+    }
+
+    public void onScrolled(RecyclerView recyclerView, int dx, int dy) {
+        super.onScrolled(recyclerView, dx, dy);
+        if (this.mScrollState == RecyclerView.SCROLL_STATE_DRAGGING) {
+            this.trackVelocity(dx, dy);
+        }
+        IndicatorPositionProvider provider = this.mPositionProvider;
+        if (provider.update(recyclerView, dx, dy)) {
+            ArrayList<WeakReference<PageIndicator>> indicators = this.mIndicators;
+
+            for(int i = 0; i < indicators.size(); ++i) {
+                PageIndicator indicator = indicators.get(i).get();
+                if (indicator == null) {
+                    indicators.remove(i--);
+                } else {
+                    indicator.onDispatchedScroll(recyclerView, provider, dy);
+                }
+            }
+
+        }
+    }
+}
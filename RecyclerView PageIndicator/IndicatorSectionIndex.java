@@ -0,0 +1,62 @@
+
+public final class IndicatorSectionIndex {
+    private final long[] mStarts;
+    private final long mEnd;
+
+    public IndicatorSectionIndex(long[] sectionStarts, long itemCount) {
+        if (sectionStarts.length == 0 || sectionStarts[0] != 0L) {
+            throw new IllegalArgumentException("first section must start at 0");
+        }
+
+        for(int i = 0; i < sectionStarts.length; ++i) {
+            long end = i + 1 < sectionStarts.length ? sectionStarts[i + 1] : itemCount;
+            if (end <= sectionStarts[i] || end - sectionStarts[i] > 2147483647L) {
+                throw new IllegalArgumentException("section " + i + " is empty, unsorted or larger than Integer.MAX_VALUE");
+            }
+        }
+
+        this.mStarts = sectionStarts.clone();
+        this.mEnd = itemCount;
+    }
+
+    public int getSectionCount() {
+        return this.mStarts.length;
+    }
+
+    public long getItemCount() {
+        return this.mEnd;
+    }
+
+    public long getSectionStart(int section) {
+        return this.mStarts[section];
+    }
+
+    public int getSectionSize(int section) {
+        long end = section + 1 < this.mStarts.length ? this.mStarts[section + 1] : this.mEnd;
+        return (int)(end - this.mStarts[section]);
+    }
+
+    public boolean contains(int section, long position) {
+        return section >= 0 && section < this.mStarts.length && position >= this.mStarts[section] && position < this.mStarts[section] + (long)this.getSectionSize(section);
+    }
+
+    public int findSection(long position) {
+        if (position >= 0L && position < this.mEnd) {
+            int low = 0;
+            int high = this.mStarts.length - 1;
+
+            while(low < high) {
+                int mid = low + high + 1 >>> 1;
+                if (this.mStarts[mid] <= position) {
+                    low = mid;
+                } else {
+                    high = mid - 1;
+                }
+            }
+
+            return low;
+        } else {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+
+import android.graphics.Paint;
+import java.util.HashMap;
+
+public final class IndicatorStyle {
+    public static final int DEFAULT_DOT_VISIBLE_COUNT = 5;
+    public static final float DEFAULT_DOT_ALPHA = 1.0F;
+    public static final float DEFAULT_DOT_ALPHA_MIN = 0.2F;
+    public static final int DEFAULT_DOT_COLOR = -1;
+    // guarded by itself: indicators can be constructed off the main thread by async inflation; the probe avoids a key allocation per lookup
+    private static final HashMap<Key, IndicatorStyle> sStyles = new HashMap<>();
+    private static final Key sProbe = new Key();
+    private final Key mKey;
+    private final IndicatorGeometry mGeometry;
+    // shared by every indicator using this style; draws set the alpha right before each dot on the main thread
+    private final Paint mPaint;
+    private int mRefCount;
+
+    private IndicatorStyle(Key key) {
+        this.mKey = key;
+        this.mGeometry = new IndicatorGeometry(key.mDotVisibleCount, key.mDotRadius, key.mDotRadiusMin, key.mDotAlpha, key.mDotAlphaMin);
+        this.mPaint = new Paint();
+        this.mPaint.setColor(key.mDotColor);
+        this.mPaint.setAntiAlias(key.mAntiAlias);
+    }
+
+    public static IndicatorStyle obtain(int dotVisibleCount, int dotRadius, int dotRadiusMin, float dotAlpha, float dotAlphaMin, int dotColor, float density) {
+        return obtain(dotVisibleCount, dotRadius, dotRadiusMin, dotAlpha, dotAlphaMin, dotColor, density, false);
+    }
+
+    // anti-aliasing is opt-in, the plain paint matches the original look
+    public static IndicatorStyle obtain(int dotVisibleCount, int dotRadius, int dotRadiusMin, float dotAlpha, float dotAlphaMin, int dotColor, float density, boolean antiAlias) {
+        Key key;
+        synchronized(sStyles) {
+            Key probe = sProbe;
+            probe.set(dotVisibleCount, dotRadius, dotRadiusMin, dotAlpha, dotAlphaMin, dotColor, density, antiAlias);
+            IndicatorStyle style = sStyles.get(probe);
+            if (style != null) {
+                return style;
+            }
+
+            key = probe.copy();
+        }
+
+        return new IndicatorStyle(key);
+    }
+
+    public static int getSharedStyleCount() {
+        synchronized(sStyles) {
+            return sStyles.size();
+        }
+    }
+
+    public IndicatorStyle acquire() {
+        synchronized(sStyles) {
+            IndicatorStyle style = sStyles.get(this.mKey);
+            if (style == null) {
+                sStyles.put(this.mKey, this);
+                style = this;
+            }
+
+            ++style.mRefCount;
+            return style;
+        }
+    }
+
+    public void release() {
+        synchronized(sStyles) {
+            if (this.mRefCount > 0 && --this.mRefCount == 0 && sStyles.get(this.mKey) == this) {
+                sStyles.remove(this.mKey);
+            }
+        }
+
+    }
+
+    public int getRefCount() {
+        synchronized(sStyles) {
+            return this.mRefCount;
+        }
+    }
+
+    public IndicatorStyle withDotVisibleCount(int dotVisibleCount) {
+        Key key = this.mKey;
+        return obtain(dotVisibleCount, key.mDotRadius, key.mDotRadiusMin, key.mDotAlpha, key.mDotAlphaMin, key.mDotColor, key.mDensity, key.mAntiAlias);
+    }
+
+    public IndicatorStyle withDotRadius(int dotRadius, int dotRadiusMin) {
+        Key key = this.mKey;
+        return obtain(key.mDotVisibleCount, dotRadius, dotRadiusMin, key.mDotAlpha, key.mDotAlphaMin, key.mDotColor, key.mDensity, key.mAntiAlias);
+    }
+
+    public IndicatorStyle withDotAlpha(float dotAlpha, float dotAlphaMin) {
+        Key key = this.mKey;
+        return obtain(key.mDotVisibleCount, key.mDotRadius, key.mDotRadiusMin, dotAlpha, dotAlphaMin, key.mDotColor, key.mDensity, key.mAntiAlias);
+    }
+
+    public IndicatorStyle withDotColor(int dotColor) {
+        Key key = this.mKey;
+        return obtain(key.mDotVisibleCount, key.mDotRadius, key.mDotRadiusMin, key.mDotAlpha, key.mDotAlphaMin, dotColor, key.mDensity, key.mAntiAlias);
+    }
+
+    public IndicatorStyle withAntiAlias(boolean antiAlias) {
+        Key key = this.mKey;
+        return obtain(key.mDotVisibleCount, key.mDotRadius, key.mDotRadiusMin, key.mDotAlpha, key.mDotAlphaMin, key.mDotColor, key.mDensity, antiAlias);
+    }
+
+    public IndicatorGeometry getGeometry() {
+        return this.mGeometry;
+    }
+
+    public Paint getPaint() {
+        return this.mPaint;
+    }
+
+    public int getDotColor() {
+        return this.mKey.mDotColor;
+    }
+
+    public float getDensity() {
+        return this.mKey.mDensity;
+    }
+
+    public boolean isAntiAlias() {
+        return this.mKey.mAntiAlias;
+    }
+
+    private static final class Key {
+        int mDotVisibleCount;
+        int mDotRadius;
+        int mDotRadiusMin;
+        float mDotAlpha;
+        float mDotAlphaMin;
+        int mDotColor;
+        float mDensity;
+        boolean mAntiAlias;
+
+        void set(int dotVisibleCount, int dotRadius, int dotRadiusMin, float dotAlpha, float dotAlphaMin, int dotColor, float density, boolean antiAlias) {
+            this.mDotVisibleCount = dotVisibleCount;
+            this.mDotRadius = dotRadius;
+            this.mDotRadiusMin = dotRadiusMin;
+            this.mDotAlpha = dotAlpha;
+            this.mDotAlphaMin = dotAlphaMin;
+            this.mDotColor = dotColor;
+            this.mDensity = density;
+            this.mAntiAlias = antiAlias;
+        }
+
+        Key copy() {
+            Key key = new Key();
+            key.set(this.mDotVisibleCount, this.mDotRadius, this.mDotRadiusMin, this.mDotAlpha, this.mDotAlphaMin, this.mDotColor, this.mDensity, this.mAntiAlias);
+            return key;
+        }
+
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            } else if (!(o instanceof Key)) {
+                return false;
+            } else {
+                Key key = (Key)o;
+                return this.mDotVisibleCount == key.mDotVisibleCount && this.mDotRadius == key.mDotRadius && this.mDotRadiusMin == key.mDotRadiusMin && Float.compare(this.mDotAlpha, key.mDotAlpha) == 0 && Float.compare(this.mDotAlphaMin, key.mDotAlphaMin) == 0 && this.mDotColor == key.mDotColor && Float.compare(this.mDensity, key.mDensity) == 0 && this.mAntiAlias == key.mAntiAlias;
+            }
+        }
+
+        public int hashCode() {
+            int result = this.mDotVisibleCount;
+            result = 31 * result + this.mDotRadius;
+            result = 31 * result + this.mDotRadiusMin;
+            result = 31 * result + Float.floatToIntBits(this.mDotAlpha);
+            result = 31 * result + Float.floatToIntBits(this.mDotAlphaMin);
+            result = 31 * result + this.mDotColor;
+            result = 31 * result + Float.floatToIntBits(this.mDensity);
+            result = 31 * result + (this.mAntiAlias ? 1 : 0);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+
+public final class IndicatorTracer {
+    // value = first visible item, a = dy, b = percent
+    public static final int EVENT_SCROLLED = 1;
+    // value = index, a = percent, b = started percent
+    public static final int EVENT_SCROLL_POSITION = 2;
+    // value = current selected index, a = next selected index, b = scroll y
+    public static final int EVENT_SELECTION = 3;
+    // value = draw branch, a = scroll y, b = dot count of the frame
+    public static final int EVENT_BRANCH = 4;
+    // value = slot, a = radius, b = y
+    public static final int EVENT_DOT = 5;
+    private static final String[] EVENT_NAMES = new String[]{"?", "scrolled", "scrollPosition", "selection", "branch", "dot"};
+    private final int mMask;
+    private final long[] mTime;
+    private final int[] mType;
+    private final int[] mValue;
+    private final float[] mA;
+    private final float[] mB;
+    private long mCount;
+
+    public IndicatorTracer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.mMask = size - 1;
+        this.mTime = new long[size];
+        this.mType = new int[size];
+        this.mValue = new int[size];
+        this.mA = new float[size];
+        this.mB = new float[size];
+    }
+
+    public void record(int type, int value, float a, float b) {
+        int slot = (int)(this.mCount++ & (long)this.mMask);
+        this.mTime[slot] = System.nanoTime();
+        this.mType[slot] = type;
+        this.mValue[slot] = value;
+        this.mA[slot] = a;
+        this.mB[slot] = b;
+    }
+
+    public int getCapacity() {
+        return this.mMask + 1;
+    }
+
+    public long getRecordedCount() {
+        return this.mCount;
+    }
+
+    public void clear() {
+        this.mCount = 0L;
+    }
+
+    public void dump(StringBuilder out) {
+        long count = this.mCount;
+        long first = Math.max(0L, count - (long)(this.mMask + 1));
+        long base = count > first ? this.mTime[(int)(first & (long)this.mMask)] : 0L;
+
+        for(long seq = first; seq < count; ++seq) {
+            int slot = (int)(seq & (long)this.mMask);
+            int type = this.mType[slot];
+            out.append('#').append(seq).append(" +").append((this.mTime[slot] - base) / 1000L).append("us ").append(type < EVENT_NAMES.length ? EVENT_NAMES[type] : EVENT_NAMES[0]);
+            switch(type) {
+            case EVENT_SCROLLED:
+                out.append(" first=").append(this.mValue[slot]).append(" dy=").append((int)this.mA[slot]).append(" percent=").append(this.mB[slot]);
+                break;
+            case EVENT_SCROLL_POSITION:
+                out.append(" index=").append(this.mValue[slot]).append(" percent=").append(this.mA[slot]).append(" started=").append(this.mB[slot]);
+                break;
+            case EVENT_SELECTION:
+                out.append(" current=").append(this.mValue[slot]).append(" next=").append((int)this.mA[slot]).append(" scrollY=").append(this.mB[slot]);
+                break;
+            case EVENT_BRANCH:
+                out.append(" branch=").append(this.mValue[slot]).append(" scrollY=").append(this.mA[slot]).append(" dots=").append((int)this.mB[slot]);
+                break;
+            case EVENT_DOT:
+                out.append(" slot=").append(this.mValue[slot]).append(" radius=").append(this.mA[slot]).append(" y=").append(this.mB[slot]);
+                break;
+            default:
+                out.append(" value=").append(this.mValue[slot]).append(" a=").append(this.mA[slot]).append(" b=").append(this.mB[slot]);
+            }
+
+            out.append('\n');
+        }
+
+    }
+}
@@ -2,585 +2,1089 @@
 import android.content.Context;
 import android.graphics.Canvas;
 import android.graphics.Paint;
+import android.os.Build.VERSION;
+import android.os.Build.VERSION_CODES;
+import android.os.Bundle;
+import android.os.SystemClock;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.support.v7.widget.LinearLayoutManager;
 import android.support.v7.widget.RecyclerView;
-import android.support.v7.widget.RecyclerView.LayoutManager;
+import android.support.v7.widget.RecyclerView.Adapter;
+import android.support.v7.widget.RecyclerView.AdapterDataObserver;
 import android.support.v7.widget.RecyclerView.OnScrollListener;
-import android.support.v7.widget.RecyclerView.ViewHolder;
 import android.util.AttributeSet;
 import android.util.Log;
+import android.view.Choreographer;
+import android.view.Choreographer.FrameCallback;
+import android.view.MotionEvent;
 import android.view.View;
+import android.view.accessibility.AccessibilityNodeInfo;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
 
 public class PageIndicator extends View {
     private static final String TAG = "PageIndicator";
-    private int mDotVisibleCount = 5;
-    private int mDotCount = 4;
-    private int mDotRadius = 20;
-    private int mDotRadiusMin = 10;
-    private int mDotDelta = 10;
-    private int mDotColor = -1;
-    private float mDotAlphaMin = 0.2F;
-    private float mDotAlpha = 1.0F;
-    private Paint mDotPaint;
-    private float mScrollY = 0.0F;
-    private float mScrollPercent = 0.0F;
-    private int mCurrentSelectedIndex = 0;
-    private int mFirstVisibleIndex;
-    private float mStartedPercent;
-    private int mNextSelectedIndex;
-    private int mPageFirstIndex;
+    public static final int RENDER_MODE_CIRCLE = 0;
+    public static final int RENDER_MODE_SPRITE = 1;
+    public static final int RENDER_MODE_BATCHED = 2;
+    public static final int RENDER_MODE_DISPLAY_LIST = 3;
+    private static final float SPRITE_RADIUS_STEP = 0.25F;
+    private static final long WINDOW_ANIMATION_DURATION = 250L;
+    private IndicatorStyle mStyle;
+    private boolean mStyleAcquired;
+    private final CanvasDotSink mCanvasDotSink = new CanvasDotSink();
+    private final IndicatorModel mModel;
+    private final IndicatorPipeline mPipeline;
+    private int mQualityLevel = QualityGovernor.LEVEL_FULL;
+    private boolean mQualitySampling;
+    private boolean mSettlePending;
+    private ScrollTraceRecorder mTraceRecorder;
+    private ScrollTraceReplayer.Target mTraceTarget;
+    private ScrollTraceReplayer mTraceReplayer;
+    private long mTraceReplayStart;
+    private boolean mTraceEventPending;
+    private int mRenderMode = RENDER_MODE_CIRCLE;
+    private DotSpriteAtlas mSpriteAtlas;
+    private DotBatchRenderer mBatchRenderer;
+    private StaticDotLayer mStaticDotLayer;
+    private WeakReference<RecyclerView> mRecyclerView;
+    private IndicatorPositionProvider mPositionProvider;
+    private Adapter<?> mObservedAdapter;
+    private boolean mAnimateDataChanges = true;
+    // cleared by a count the app sets itself, which need not map to items or rows
+    private boolean mDotCountFromAdapter = true;
+    private boolean mTouchNavigationEnabled = true;
+    private int mTouchDot = -1;
+    private int mClickDot = -1;
+    private boolean mScrubbing;
+    private boolean mJumping;
+    private int mJumpTarget;
+    private final ScrollPositionMailbox mPositionMailbox = new ScrollPositionMailbox();
+    private final Runnable mPublishedPositionRunnable = new Runnable() {
+        public void run() {
+            PageIndicator.this.consumePublishedPosition();
+        }
+    };
+    private final Runnable mSmoothScrollRunnable = new Runnable() {
+        public void run() {
+            RecyclerView recyclerView = PageIndicator.this.getAttachedRecyclerView();
+            if (recyclerView != null) {
+                recyclerView.smoothScrollToPosition(PageIndicator.this.mJumpTarget * PageIndicator.this.getItemsPerDot());
+            }
+
+        }
+    };
+    private final AdapterDataObserver mAdapterObserver = new AdapterDataObserver() {
+        public void onChanged() {
+            PageIndicator.this.onAdapterChanged();
+        }
+
+        // positions are dots only when every item has its own dot, grid rows are recounted instead
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            if (!PageIndicator.this.mDotCountFromAdapter) {
+                PageIndicator.this.invalidatePositionProvider();
+            } else if (PageIndicator.this.getItemsPerDot() > 1) {
+                PageIndicator.this.onAdapterChanged();
+            } else {
+                PageIndicator.this.onAdapterRangeChanged(PageIndicator.this.mModel.onItemRangeInserted(positionStart, itemCount));
+            }
+        }
+
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            if (!PageIndicator.this.mDotCountFromAdapter) {
+                PageIndicator.this.invalidatePositionProvider();
+            } else if (PageIndicator.this.getItemsPerDot() > 1) {
+                PageIndicator.this.onAdapterChanged();
+            } else {
+                PageIndicator.this.onAdapterRangeChanged(PageIndicator.this.mModel.onItemRangeRemoved(positionStart, itemCount));
+            }
+        }
+
+        public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+            if (!PageIndicator.this.mDotCountFromAdapter || PageIndicator.this.getItemsPerDot() > 1) {
+                PageIndicator.this.invalidatePositionProvider();
+            } else {
+                PageIndicator.this.onAdapterRangeChanged(PageIndicator.this.mModel.onItemRangeMoved(fromPosition, toPosition, itemCount));
+            }
+        }
+    };
+    private boolean mFrameAligned;
+    private boolean mFrameScheduled;
+    private boolean mHasPendingPosition;
+    private float mPendingPercent;
+    private int mPendingIndex;
+    private int mLastAppliedIndex = -1;
+    private final FrameCallback mFrameCallback = new FrameCallback() {
+        public void doFrame(long frameTimeNanos) {
+            PageIndicator.this.mFrameScheduled = false;
+            PageIndicator.this.applyPendingPosition();
+        }
+    };
+
+    private final FrameCallback mTraceReplayCallback = new FrameCallback() {
+        public void doFrame(long frameTimeNanos) {
+            PageIndicator.this.stepTraceReplay(frameTimeNanos);
+        }
+    };
+
+    private final FrameCallback mQualityFrameCallback = new FrameCallback() {
+        public void doFrame(long frameTimeNanos) {
+            QualityGovernor governor = PageIndicator.this.mPipeline.getQualityGovernor();
+            if (PageIndicator.this.mQualitySampling && governor != null) {
+                if (governor.onFrame(frameTimeNanos)) {
+                    PageIndicator.this.applyQualityLevel();
+                }
+
+                Choreographer.getInstance().postFrameCallback(this);
+            }
+
+        }
+    };
 
     public PageIndicator(Context context) {
         super(context);
-        this.mFirstVisibleIndex = this.mCurrentSelectedIndex;
-        this.mStartedPercent = 0.0F;
-        this.mNextSelectedIndex = 0;
-        this.mPageFirstIndex = 0;
+        this.mStyle = this.obtainDefaultStyle(20, 10);
+        this.mModel = new IndicatorModel(this.mStyle.getGeometry());
+        this.mPipeline = new IndicatorPipeline(this.mModel);
         this.init();
     }
 
     public PageIndicator(Context context, @Nullable AttributeSet attrs) {
         super(context, attrs);
-        this.mFirstVisibleIndex = this.mCurrentSelectedIndex;
-        this.mStartedPercent = 0.0F;
-        this.mNextSelectedIndex = 0;
-        this.mPageFirstIndex = 0;
-        this.init();
         float dpi = this.getResources().getDisplayMetrics().density;
-        this.mDotRadius = (int)(3.0F * dpi);
-        this.mDotRadiusMin = (int)(1.75F * dpi);
+        this.mStyle = this.obtainDefaultStyle((int)(3.0F * dpi), (int)(1.75F * dpi));
+        this.mModel = new IndicatorModel(this.mStyle.getGeometry());
+        this.mPipeline = new IndicatorPipeline(this.mModel);
+        this.init();
     }
 
     public PageIndicator(Context context, @Nullable AttributeSet attrs, int defStyleAttr) {
         super(context, attrs, defStyleAttr);
-        this.mFirstVisibleIndex = this.mCurrentSelectedIndex;
-        this.mStartedPercent = 0.0F;
-        this.mNextSelectedIndex = 0;
-        this.mPageFirstIndex = 0;
+        this.mStyle = this.obtainDefaultStyle(20, 10);
+        this.mModel = new IndicatorModel(this.mStyle.getGeometry());
+        this.mPipeline = new IndicatorPipeline(this.mModel);
         this.init();
     }
 
+    private IndicatorStyle obtainDefaultStyle(int dotRadius, int dotRadiusMin) {
+        return IndicatorStyle.obtain(IndicatorStyle.DEFAULT_DOT_VISIBLE_COUNT, dotRadius, dotRadiusMin, IndicatorStyle.DEFAULT_DOT_ALPHA, IndicatorStyle.DEFAULT_DOT_ALPHA_MIN, IndicatorStyle.DEFAULT_DOT_COLOR, this.getResources().getDisplayMetrics().density);
+    }
+
     private void init() {
-        this.mDotPaint = new Paint();
-        this.mDotPaint.setColor(this.mDotColor);
         if (this.isInEditMode()) {
-            this.mDotCount = 2;
+            this.mModel.setDotCount(2);
         }
 
     }
 
-    public void setDotCount(int dotCount) {
-        this.mDotCount = dotCount;
-        this.mPageFirstIndex = 0;
+    @NonNull
+    public IndicatorModel getModel() {
+        return this.mModel;
+    }
+
+    public void setTracer(@Nullable IndicatorTracer tracer) {
+        this.mPipeline.setTracer(tracer);
+    }
+
+    @Nullable
+    public IndicatorTracer getTracer() {
+        return this.mPipeline.getTracer();
+    }
+
+    public void setMetrics(@Nullable IndicatorMetrics metrics) {
+        this.mPipeline.setMetrics(metrics);
+    }
+
+    @Nullable
+    public IndicatorMetrics getMetrics() {
+        return this.mPipeline.getMetrics();
+    }
+
+    public void setQualityGovernor(@Nullable QualityGovernor qualityGovernor) {
+        this.setQualitySampling(false);
+        this.mPipeline.setQualityGovernor(qualityGovernor);
+        this.updateSkippedQualityLevels();
+        this.applyQualityLevel();
+    }
+
+    @Nullable
+    public QualityGovernor getQualityGovernor() {
+        return this.mPipeline.getQualityGovernor();
+    }
+
+    public int getQualityLevel() {
+        return this.mQualityLevel;
+    }
+
+    // sprites are always rasterized with anti-aliasing and a plain paint has none to drop
+    private void updateSkippedQualityLevels() {
+        QualityGovernor governor = this.mPipeline.getQualityGovernor();
+        if (governor != null) {
+            governor.setLevelSkipped(QualityGovernor.LEVEL_NO_ANTI_ALIAS, !this.mStyle.isAntiAlias() || this.mRenderMode == RENDER_MODE_SPRITE);
+        }
+
+    }
+
+    private void applyQualityLevel() {
+        QualityGovernor governor = this.mPipeline.getQualityGovernor();
+        int level = governor != null ? governor.getLevel() : QualityGovernor.LEVEL_FULL;
+        if (level != this.mQualityLevel) {
+            this.mQualityLevel = level;
+            this.mModel.setSnapRadius(level >= QualityGovernor.LEVEL_SNAP_RADIUS);
+            if (this.mStaticDotLayer != null) {
+                this.mStaticDotLayer.discard();
+            }
+
+            this.invalidate();
+        }
+    }
+
+    // frame deltas are only sampled while the list scrolls, an idle screen says nothing about headroom
+    private void setQualitySampling(boolean sampling) {
+        if (sampling != this.mQualitySampling) {
+            this.mQualitySampling = sampling;
+            if (sampling) {
+                Choreographer.getInstance().postFrameCallback(this.mQualityFrameCallback);
+            } else {
+                Choreographer.getInstance().removeFrameCallback(this.mQualityFrameCallback);
+                if (this.mPipeline.getQualityGovernor() != null) {
+                    this.mPipeline.getQualityGovernor().pause();
+                }
+            }
+
+        }
+    }
+
+    public void dumpTrace() {
+        IndicatorTracer tracer = this.mPipeline.getTracer();
+        if (tracer != null) {
+            StringBuilder out = new StringBuilder();
+            tracer.dump(out);
+            int start = 0;
+
+            for(int end = out.indexOf("\n"); end >= 0; end = out.indexOf("\n", start)) {
+                Log.d(TAG, out.substring(start, end));
+                start = end + 1;
+            }
+
+        }
+    }
+
+    @NonNull
+    public IndicatorStyle getStyle() {
+        return this.mStyle;
+    }
+
+    public void setStyle(@NonNull IndicatorStyle style) {
+        if (this.applyStyle(style)) {
+            this.requestLayout();
+            this.invalidate();
+        }
+
+    }
+
+    private boolean applyStyle(IndicatorStyle style) {
+        if (style == this.mStyle) {
+            return false;
+        } else {
+            if (this.mStyleAcquired) {
+                style = style.acquire();
+                this.mStyle.release();
+            }
+
+            this.mStyle = style;
+            this.mModel.setGeometry(style.getGeometry());
+            this.updateSkippedQualityLevels();
+            if (this.mRenderMode == RENDER_MODE_SPRITE) {
+                this.updateSpriteAtlas();
+            }
+
+            return true;
+        }
+    }
+
+    // sized from the geometry, whose radii are already in pixels for this density
+    private void updateSpriteAtlas() {
+        int capacity = DotSpriteAtlas.capacityFor(this.mStyle.getGeometry().getDotRadius(), this.mStyle.getGeometry().getDotRadiusMin(), SPRITE_RADIUS_STEP);
+        if (this.mSpriteAtlas == null || this.mSpriteAtlas.getCapacity() != capacity) {
+            this.mSpriteAtlas = new DotSpriteAtlas(capacity, SPRITE_RADIUS_STEP);
+        }
+
+    }
+
+    public void setDotVisibleCount(int dotVisibleCount) {
+        this.setStyle(this.mStyle.withDotVisibleCount(dotVisibleCount));
+    }
+
+    public void setDotRadius(int dotRadius, int dotRadiusMin) {
+        this.setStyle(this.mStyle.withDotRadius(dotRadius, dotRadiusMin));
+    }
+
+    public void setDotSpacing(int dotSpacing) {
+        this.mModel.setDotSpacing(dotSpacing);
+        this.requestLayout();
         this.invalidate();
     }
 
+    public void setDotAlpha(float dotAlpha, float dotAlphaMin) {
+        if (this.applyStyle(this.mStyle.withDotAlpha(dotAlpha, dotAlphaMin))) {
+            this.invalidateFrame();
+        }
+    }
+
+    public void setDotColor(int dotColor) {
+        if (this.applyStyle(this.mStyle.withDotColor(dotColor))) {
+            this.invalidate();
+        }
+    }
+
+    public void setDotAntiAlias(boolean antiAlias) {
+        if (this.applyStyle(this.mStyle.withAntiAlias(antiAlias))) {
+            this.invalidate();
+        }
+    }
+
+    public boolean isDotAntiAlias() {
+        return this.mStyle.isAntiAlias();
+    }
+
+    public int getDotColor() {
+        return this.mStyle.getDotColor();
+    }
+
+    public void setRenderMode(int renderMode) {
+        if (this.mRenderMode != renderMode) {
+            this.mRenderMode = renderMode;
+            if (renderMode == RENDER_MODE_SPRITE) {
+                this.updateSpriteAtlas();
+            } else if (this.mSpriteAtlas != null) {
+                this.mSpriteAtlas.clear();
+            }
+            if (renderMode == RENDER_MODE_BATCHED && this.mBatchRenderer == null) {
+                this.mBatchRenderer = new DotBatchRenderer(SPRITE_RADIUS_STEP);
+            }
+            if (renderMode == RENDER_MODE_DISPLAY_LIST) {
+                if (this.mStaticDotLayer == null && VERSION.SDK_INT >= VERSION_CODES.Q) {
+                    this.mStaticDotLayer = new StaticDotLayer();
+                }
+            } else if (this.mStaticDotLayer != null) {
+                this.mStaticDotLayer.discard();
+            }
+
+            this.updateSkippedQualityLevels();
+            this.invalidate();
+        }
+    }
+
+    public int getRenderMode() {
+        return this.mRenderMode;
+    }
+
+    public void setFrameAligned(boolean frameAligned) {
+        if (this.mFrameAligned != frameAligned) {
+            this.mFrameAligned = frameAligned;
+            if (!frameAligned) {
+                this.applyPendingPosition();
+            }
+        }
+    }
+
+    public boolean isFrameAligned() {
+        return this.mFrameAligned;
+    }
+
+    public void postScrollPosition(float percent, int index) {
+        if (this.mTraceRecorder != null) {
+            this.mTraceRecorder.recordScrollPosition(percent, index);
+        }
+
+        this.enqueueScrollPosition(percent, index);
+    }
+
+    private void enqueueScrollPosition(float percent, int index) {
+        if (!this.mFrameAligned) {
+            this.applyScrollPosition(percent, index);
+            return;
+        }
+        this.mPendingPercent = percent;
+        this.mPendingIndex = index;
+        this.mHasPendingPosition = true;
+        if (!this.mFrameScheduled) {
+            this.mFrameScheduled = true;
+            Choreographer.getInstance().postFrameCallback(this.mFrameCallback);
+        }
+
+    }
+
+    private void applyPendingPosition() {
+        if (this.mFrameScheduled) {
+            this.mFrameScheduled = false;
+            Choreographer.getInstance().removeFrameCallback(this.mFrameCallback);
+        }
+        if (this.mHasPendingPosition) {
+            this.mHasPendingPosition = false;
+            int index = this.mPendingIndex;
+            int last = this.mLastAppliedIndex;
+            if (last >= 0 && (index > last + 1 || index < last - 1) && this.mPendingPercent != 0.0F) {
+                this.applyScrollPosition(0.0F, index);
+            }
+
+            this.applyScrollPosition(this.mPendingPercent, index);
+        }
+    }
+
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        if (!this.mStyleAcquired) {
+            this.mStyle = this.mStyle.acquire();
+            this.mStyleAcquired = true;
+            this.mModel.setGeometry(this.mStyle.getGeometry());
+        }
+        RecyclerView recyclerView = this.getAttachedRecyclerView();
+        if (recyclerView != null) {
+            if (this.registerWithDispatcher(recyclerView)) {
+                // changes made while detached were not observed
+                this.onAdapterChanged();
+            } else {
+                this.mRecyclerView = null;
+                this.mPositionProvider = null;
+            }
+        }
+
+    }
+
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        if (this.mStyleAcquired) {
+            this.mStyle.release();
+            this.mStyleAcquired = false;
+        }
+        if (this.mFrameScheduled) {
+            this.mFrameScheduled = false;
+            Choreographer.getInstance().removeFrameCallback(this.mFrameCallback);
+        }
+        // the attachment is kept and registers again when the view comes back
+        RecyclerView recyclerView = this.getAttachedRecyclerView();
+        if (recyclerView != null) {
+            this.unregisterFromDispatcher(recyclerView);
+        }
+        // an adapter outliving the screen must not hold the indicator through its observer
+        this.observeAdapter(null);
+        if (this.mSpriteAtlas != null) {
+            this.mSpriteAtlas.clear();
+        }
+        if (this.mStaticDotLayer != null) {
+            this.mStaticDotLayer.discard();
+        }
+        if (this.mPipeline.getMetrics() != null) {
+            this.mPipeline.getMetrics().report();
+        }
+        this.setQualitySampling(false);
+        this.stopTraceReplay();
+    }
+
+    public void setDotCount(int dotCount) {
+        this.mDotCountFromAdapter = false;
+        this.mModel.setDotCount(dotCount);
+        this.invalidateFrame();
+    }
+
     public void setDotCountAndStartPosition(int firstIndex, int count) {
-        this.mPageFirstIndex = firstIndex;
-        this.mDotCount = count;
-        this.invalidate();
+        this.mDotCountFromAdapter = false;
+        this.mModel.setDotCountAndStartPosition(firstIndex, count);
+        this.invalidateFrame();
     }
 
     public void setSelectedIndex(int selectedIndex, int dotCount) {
-        this.mCurrentSelectedIndex = selectedIndex;
-        this.mNextSelectedIndex = selectedIndex;
-        this.mDotCount = dotCount;
-        if (dotCount > this.mDotVisibleCount) {
-            this.mFirstVisibleIndex = this.mCurrentSelectedIndex - this.mDotVisibleCount / 2;
-            if (this.mFirstVisibleIndex < 0) {
-                this.mFirstVisibleIndex = 0;
-            } else if (this.mFirstVisibleIndex > dotCount - this.mDotVisibleCount) {
-                this.mFirstVisibleIndex = dotCount - this.mDotVisibleCount;
-            }
+        this.mDotCountFromAdapter = false;
+        this.mModel.setSelectedIndex(selectedIndex, dotCount);
+        this.invalidateFrame();
+    }
+
+    // true until the app sets a count itself; the observed adapter then only re-anchors the scroll position
+    public void setDotCountFromAdapter(boolean dotCountFromAdapter) {
+        this.mDotCountFromAdapter = dotCountFromAdapter;
+        if (dotCountFromAdapter) {
+            this.onAdapterChanged();
         }
 
-        this.invalidate();
+    }
+
+    public boolean isDotCountFromAdapter() {
+        return this.mDotCountFromAdapter;
     }
 
     protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
-        super.onMeasure(widthMeasureSpec, heightMeasureSpec);
-        int drawHeight = this.getMeasuredHeight() - this.getPaddingTop() - this.getPaddingBottom();
-        this.mDotDelta = (drawHeight - (this.mDotVisibleCount + 2) * this.mDotRadius * 2) / (this.mDotVisibleCount + 1);
+        IndicatorModel model = this.mModel;
+        int width = Math.max(this.getSuggestedMinimumWidth(), model.getIntrinsicWidth() + this.getPaddingLeft() + this.getPaddingRight());
+        int height = Math.max(this.getSuggestedMinimumHeight(), model.getIntrinsicHeight() + this.getPaddingTop() + this.getPaddingBottom());
+        this.setMeasuredDimension(resolveSize(width, widthMeasureSpec), resolveSize(height, heightMeasureSpec));
+        model.measure(this.getMeasuredHeight(), this.getPaddingTop(), this.getPaddingBottom());
+    }
+
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        this.mModel.setViewport(w, h, this.getPaddingTop(), this.getPaddingBottom());
     }
 
     protected void onDraw(Canvas canvas) {
         super.onDraw(canvas);
-        boolean isScrollUp = this.mNextSelectedIndex > this.mCurrentSelectedIndex;
-        if (this.mNextSelectedIndex == this.mCurrentSelectedIndex) {
-            if (this.mDotCount > this.mDotVisibleCount) {
-                this.drawScrollNone(canvas, this.mDotVisibleCount);
-            } else {
-                this.drawScrollNoneNormal(canvas, this.mDotCount);
-            }
-        } else if (this.mDotCount > this.mDotVisibleCount) {
-            if (isScrollUp) {
-                this.drawScrollUp(canvas, this.mDotVisibleCount + 1);
-            } else {
-                this.drawScrollDown(canvas, this.mDotVisibleCount + 1);
-            }
-        } else if (isScrollUp) {
-            this.drawScrollUpNormal(canvas, this.mDotCount);
+        IndicatorModel model = this.mModel;
+        if (this.mPipeline.beginDraw(SystemClock.uptimeMillis())) {
+            this.postInvalidateOnAnimation();
+        }
+
+        Paint paint = this.mStyle.getPaint();
+        // the paint is shared with every indicator using this style, so anti-aliasing is only dropped for this draw
+        boolean restoreAntiAlias = this.mQualityLevel >= QualityGovernor.LEVEL_NO_ANTI_ALIAS && paint.isAntiAlias();
+        if (restoreAntiAlias) {
+            paint.setAntiAlias(false);
+        }
+        if (this.mRenderMode == RENDER_MODE_BATCHED) {
+            this.mBatchRenderer.draw(canvas, model, paint);
+        } else if (this.mRenderMode == RENDER_MODE_DISPLAY_LIST && this.mStaticDotLayer != null && StaticDotLayer.isSupported(canvas)) {
+            this.mStaticDotLayer.draw(canvas, model, paint, this.getWidth(), this.getHeight());
         } else {
-            this.drawScrollDownNormal(canvas, this.mDotCount);
+            CanvasDotSink sink = this.mCanvasDotSink;
+            sink.begin(canvas, paint, this.mRenderMode == RENDER_MODE_SPRITE ? this.mSpriteAtlas : null, this.mStyle.getDotColor());
+            model.renderFrame(sink);
+            sink.end();
+        }
+        if (restoreAntiAlias) {
+            paint.setAntiAlias(true);
         }
 
+        this.mPipeline.endDraw();
     }
 
-    private void drawScrollUpNormal(Canvas canvas, int dotCount) {
-        float rx = this.getDrawStartX();
-        float ry = this.getDrawStartY();
-        float radius = (float)this.mDotRadius;
-        int firstIndex = this.mFirstVisibleIndex;
-        int selectIndex = this.mCurrentSelectedIndex - firstIndex;
-        int nextSelectIndex = this.mNextSelectedIndex - firstIndex;
+    public void setSections(@Nullable IndicatorSectionIndex sections) {
+        this.mModel.setSections(sections);
+        this.invalidateFrame();
+    }
 
-        for(int i = 0; i < dotCount; ++i) {
-            float alpha;
-            if (i == selectIndex) {
-                alpha = this.mDotAlpha + (this.mDotAlpha - this.mDotAlphaMin) * this.mScrollPercent;
-            } else if (i == nextSelectIndex) {
-                alpha = this.mDotAlphaMin - (this.mDotAlpha - this.mDotAlphaMin) * this.mScrollPercent;
-            } else {
-                alpha = this.mDotAlphaMin;
-            }
+    public int getCurrentSection() {
+        return this.mModel.getCurrentSection();
+    }
+
+    public void setSectionScrollPosition(float percent, long position) {
+        this.invalidateDirty(this.mPipeline.applySectionScrollPosition(percent, position));
+    }
 
-            this.mDotPaint.setAlpha((int)(alpha * 255.0F));
-            canvas.drawCircle(rx, ry, radius, this.mDotPaint);
-            ry = ry + (float)this.mDotDelta + (float)(this.mDotRadius * 2);
+    public void setScrollPosition(float percent, int index) {
+        if (this.mTraceRecorder != null) {
+            this.mTraceRecorder.recordScrollPosition(percent, index);
         }
 
+        this.applyScrollPosition(percent, index);
     }
 
-    private void drawScrollDownNormal(Canvas canvas, int dotCount) {
-        float rx = this.getDrawStartX();
-        float ry = this.getDrawStartY();
-        int firstIndex = this.mFirstVisibleIndex;
-        int selectIndex = this.mCurrentSelectedIndex - firstIndex;
-        int nextSelectIndex = this.mNextSelectedIndex - firstIndex;
-        float radius = (float)this.mDotRadius;
+    // safe from any thread: the latest pair wins and is applied at most once per frame on the main thread
+    public void publishScrollPosition(float percent, int index) {
+        if (index >= 0 && this.mPositionMailbox.publish(percent, index)) {
+            this.postOnAnimation(this.mPublishedPositionRunnable);
+        }
+
+    }
 
-        for(int i = 0; i < dotCount; ++i) {
-            float alpha;
-            if (i == selectIndex) {
-                alpha = this.mDotAlphaMin - (this.mDotAlpha - this.mDotAlphaMin) * this.mScrollPercent;
-            } else if (i == nextSelectIndex) {
-                alpha = this.mDotAlpha + (this.mDotAlpha - this.mDotAlphaMin) * this.mScrollPercent;
-            } else {
-                alpha = this.mDotAlphaMin;
+    private void consumePublishedPosition() {
+        ScrollPositionMailbox mailbox = this.mPositionMailbox;
+        if (mailbox.take()) {
+            if (this.mTraceRecorder != null) {
+                this.mTraceRecorder.recordScrollPosition(mailbox.getPercent(), mailbox.getIndex());
             }
 
-            this.mDotPaint.setAlpha((int)(alpha * 255.0F));
-            canvas.drawCircle(rx, ry, radius, this.mDotPaint);
-            ry = ry + (float)this.mDotDelta + (float)(this.mDotRadius * 2);
+            this.applyScrollPosition(mailbox.getPercent(), mailbox.getIndex());
         }
 
     }
 
-    private float getDrawStartY() {
-        float ry;
-        if (this.mDotCount <= this.mDotVisibleCount) {
-            ry = (float)((this.getHeight() - this.getPaddingTop() - this.getPaddingBottom() - this.mDotCount * this.mDotRadius * 2 - this.mDotDelta * (this.mDotCount - 1)) / 2 + this.mDotRadius);
-        } else if (this.mCurrentSelectedIndex == this.mNextSelectedIndex) {
-            ry = (float)(this.getPaddingTop() + this.mDotRadius * 3 + this.mDotDelta);
+    private void applyScrollPosition(float percent, int index) {
+        this.mLastAppliedIndex = index;
+        this.invalidateDirty(this.mPipeline.applyScrollPosition(percent, index));
+    }
+
+    private void invalidateFrame() {
+        this.invalidateDirty(this.mPipeline.invalidateFrame());
+    }
+
+    private void invalidateDirty(int dirty) {
+        float[] bounds = this.mPipeline.getDirtyBounds();
+        switch(dirty) {
+        case IndicatorModel.DIRTY_NONE:
+            break;
+        case IndicatorModel.DIRTY_REGION:
+            this.invalidate((int)Math.floor((double)bounds[0]), (int)Math.floor((double)bounds[1]), (int)Math.ceil((double)bounds[2]), (int)Math.ceil((double)bounds[3]));
+            break;
+        default:
+            this.invalidate();
+        }
+
+    }
+
+    public void attachToRecyclerView(@NonNull RecyclerView recyclerView) {
+        this.attach(recyclerView, null);
+    }
+
+    public void attachToRecyclerView(@NonNull RecyclerView recyclerView, @NonNull IndicatorPositionProvider positionProvider) {
+        this.attach(recyclerView, positionProvider);
+    }
+
+    private void attach(RecyclerView recyclerView, IndicatorPositionProvider positionProvider) {
+        if (this.getAttachedRecyclerView() != recyclerView) {
+            this.detachFromRecyclerView();
         } else {
-            ry = this.mScrollY + (float)this.getPaddingTop() + (float)(this.mDotRadius * 3) + (float)this.mDotDelta;
+            // leaves the dispatcher free to take a new provider if this indicator was its only one
+            this.unregisterFromDispatcher(recyclerView);
+        }
+
+        this.mRecyclerView = new WeakReference<>(recyclerView);
+        this.mPositionProvider = positionProvider;
+        if (!this.registerWithDispatcher(recyclerView)) {
+            this.mRecyclerView = null;
+            this.mPositionProvider = null;
+            Log.e("PageIndicator", "not supported");
         }
 
-        return ry;
     }
 
-    private float getDrawStartX() {
-        return (float)(this.getWidth() / 2);
+    private boolean registerWithDispatcher(RecyclerView recyclerView) {
+        IndicatorScrollDispatcher dispatcher = this.mPositionProvider != null ? IndicatorScrollDispatcher.obtain(recyclerView, this.mPositionProvider) : IndicatorScrollDispatcher.obtain(recyclerView);
+        if (dispatcher == null) {
+            return false;
+        } else {
+            dispatcher.register(this);
+            this.observeAdapter(recyclerView.getAdapter());
+            return true;
+        }
     }
 
-    private void drawScrollUp(Canvas canvas, int dotCount) {
-        float rx = this.getDrawStartX();
-        float ry = this.getDrawStartY();
-        int firstIndex = this.mFirstVisibleIndex;
-        int selectIndex = this.mCurrentSelectedIndex - firstIndex;
-        int nextSelectIndex = this.mNextSelectedIndex - firstIndex;
+    private void unregisterFromDispatcher(RecyclerView recyclerView) {
+        IndicatorScrollDispatcher dispatcher = IndicatorScrollDispatcher.peek(recyclerView);
+        if (dispatcher != null) {
+            dispatcher.unregister(recyclerView, this);
+        }
 
-        for(int i = 0; i < dotCount; ++i) {
-            float radius;
-            if (i == 0) {
-                if (firstIndex == 0) {
-                    if (nextSelectIndex > this.mDotVisibleCount / 2) {
-                        radius = (float)this.mDotRadius + (float)(this.mDotRadius - this.mDotRadiusMin) * this.mScrollPercent;
-                    } else {
-                        radius = (float)this.mDotRadius;
-                    }
-                } else {
-                    radius = (float)this.mDotRadiusMin;
-                }
-            } else if (i == 1) {
-                if (this.mScrollY == 0.0F) {
-                    radius = (float)this.mDotRadius;
-                } else if (firstIndex >= 0) {
-                    radius = (float)this.mDotRadius + (float)(this.mDotRadius - this.mDotRadiusMin) * this.mScrollPercent;
-                } else {
-                    radius = (float)this.mDotRadius;
-                }
-            } else if (i == dotCount - 2) {
-                if (this.mScrollY == 0.0F) {
-                    if (this.mFirstVisibleIndex == this.mDotCount - this.mDotVisibleCount) {
-                        radius = (float)this.mDotRadius;
-                    } else {
-                        radius = (float)this.mDotRadiusMin;
-                    }
-                } else if (this.mFirstVisibleIndex == this.mDotCount - this.mDotVisibleCount) {
-                    radius = (float)this.mDotRadius;
-                } else {
-                    radius = (float)this.mDotRadiusMin - (float)(this.mDotRadius - this.mDotRadiusMin) * this.mScrollPercent;
-                }
-            } else if (i == dotCount - 1) {
-                if (this.mScrollY == 0.0F) {
-                    if (this.mFirstVisibleIndex == this.mDotCount - this.mDotVisibleCount) {
-                        radius = (float)this.mDotRadius;
-                    } else {
-                        radius = (float)this.mDotRadiusMin;
-                    }
-                } else if (this.mFirstVisibleIndex == this.mDotCount - this.mDotVisibleCount) {
-                    radius = (float)this.mDotRadius;
-                } else if (this.mNextSelectedIndex == this.mDotCount - this.mDotVisibleCount / 2 - 1) {
-                    radius = (float)this.mDotRadiusMin - (float)(this.mDotRadius - this.mDotRadiusMin) * this.mScrollPercent;
-                } else {
-                    radius = (float)this.mDotRadiusMin;
-                }
-            } else {
-                radius = (float)this.mDotRadius;
-            }
-
-            float alpha;
-            if (i == selectIndex) {
-                alpha = this.mDotAlpha + (this.mDotAlpha - this.mDotAlphaMin) * this.mScrollPercent;
-            } else if (i == nextSelectIndex) {
-                alpha = this.mDotAlphaMin - (this.mDotAlpha - this.mDotAlphaMin) * this.mScrollPercent;
-            } else if (i == 0) {
-                if (this.mScrollY == 0.0F) {
-                    alpha = this.mDotAlphaMin;
-                } else if (nextSelectIndex > this.mDotVisibleCount / 2) {
-                    alpha = this.mDotAlphaMin + this.mDotAlphaMin * this.mScrollPercent;
-                } else {
-                    alpha = this.mDotAlphaMin;
-                }
-            } else if (i == dotCount - 1) {
-                if (this.mScrollY == 0.0F) {
-                    alpha = this.mDotAlphaMin;
-                } else {
-                    alpha = -this.mDotAlphaMin * this.mScrollPercent;
-                }
+    }
+
+    private void observeAdapter(@Nullable Adapter<?> adapter) {
+        if (this.mObservedAdapter != adapter) {
+            if (this.mObservedAdapter != null) {
+                this.mObservedAdapter.unregisterAdapterDataObserver(this.mAdapterObserver);
+            }
+
+            this.mObservedAdapter = adapter;
+            if (adapter != null) {
+                adapter.registerAdapterDataObserver(this.mAdapterObserver);
+            }
+        }
+    }
+
+    public void setAnimateDataChanges(boolean animateDataChanges) {
+        this.mAnimateDataChanges = animateDataChanges;
+    }
+
+    public boolean isAnimateDataChanges() {
+        return this.mAnimateDataChanges;
+    }
+
+    private void onAdapterChanged() {
+        IndicatorModel model = this.mModel;
+        this.invalidatePositionProvider();
+        if (this.mDotCountFromAdapter && this.mObservedAdapter != null && model.getSections() == null && model.getPageFirstIndex() == 0) {
+            int itemsPerDot = this.getItemsPerDot();
+            int count = (this.mObservedAdapter.getItemCount() + itemsPerDot - 1) / itemsPerDot;
+            if (count != model.getDotCount()) {
+                model.cancelWindowAnimation();
+                model.setSelectedIndex(Math.max(0, Math.min(model.getCurrentSelectedIndex(), count - 1)), count);
+                this.invalidateFrame();
+            }
+        }
+
+    }
+
+    private void onAdapterRangeChanged(boolean changed) {
+        this.invalidatePositionProvider();
+        if (changed) {
+            IndicatorModel model = this.mModel;
+            if (this.mAnimateDataChanges && model.getDisplacedWindowPosition() != (float)model.getFirstVisibleIndex()) {
+                model.animateWindow(model.getDisplacedWindowPosition(), model.getFirstVisibleIndex(), SystemClock.uptimeMillis(), WINDOW_ANIMATION_DURATION);
+                this.postInvalidateOnAnimation();
             } else {
-                alpha = this.mDotAlphaMin;
+                model.cancelWindowAnimation();
+                this.invalidateFrame();
             }
+        }
+
+    }
+
+    private int getItemsPerDot() {
+        RecyclerView recyclerView = this.getAttachedRecyclerView();
+        IndicatorScrollDispatcher dispatcher = recyclerView == null ? null : IndicatorScrollDispatcher.peek(recyclerView);
+        IndicatorPositionProvider provider = dispatcher == null ? null : dispatcher.getPositionProvider();
+        return provider instanceof GridPositionProvider ? ((GridPositionProvider)provider).getSpanCount() : 1;
+    }
+
+    private void invalidatePositionProvider() {
+        RecyclerView recyclerView = this.getAttachedRecyclerView();
+        IndicatorScrollDispatcher dispatcher = recyclerView == null ? null : IndicatorScrollDispatcher.peek(recyclerView);
+        if (dispatcher != null) {
+            dispatcher.getPositionProvider().invalidate();
+        }
+
+    }
+
+    public void detachFromRecyclerView() {
+        RecyclerView recyclerView = this.getAttachedRecyclerView();
+        this.observeAdapter(null);
+        this.mRecyclerView = null;
+        this.mPositionProvider = null;
+        if (recyclerView != null) {
+            this.unregisterFromDispatcher(recyclerView);
+        }
 
-            if ((i != 0 || ry + (float)this.mDotRadius >= (float)this.getPaddingTop()) && (i != dotCount - 1 || this.mScrollY != 0.0F && ry - (float)this.mDotRadius <= (float)(this.getHeight() - this.getPaddingBottom() - this.getPaddingTop()))) {
-                this.mDotPaint.setAlpha((int)(alpha * 255.0F));
-                canvas.drawCircle(rx, ry, radius, this.mDotPaint);
+    }
+
+    @Nullable
+    public RecyclerView getAttachedRecyclerView() {
+        return this.mRecyclerView == null ? null : this.mRecyclerView.get();
+    }
+
+    void onDispatchedScroll(RecyclerView recyclerView, IndicatorPositionProvider provider, int dy) {
+        // a swapped or late adapter shows up as the layout pass's zero scroll
+        if (recyclerView.getAdapter() != this.mObservedAdapter && recyclerView == this.getAttachedRecyclerView()) {
+            this.observeAdapter(recyclerView.getAdapter());
+            this.onAdapterChanged();
+        }
+        int index = provider.getIndex();
+        float percent = provider.getPercent();
+        this.mPipeline.onScrolled(dy, index, percent);
+        if (this.mTraceRecorder != null) {
+            this.recordScrolled(provider, dy, index, percent);
+        }
+        if (this.mJumping) {
+            // the window is already animating to the target, the pages passed on the way are not shown
+            if (index != this.mJumpTarget || percent != 0.0F) {
+                return;
             }
 
-            ry = ry + (float)this.mDotDelta + (float)(this.mDotRadius * 2);
+            this.mJumping = false;
+        }
+        if (this.mQualityLevel >= QualityGovernor.LEVEL_SETTLE_ONLY && this.mQualitySampling) {
+            this.mSettlePending = true;
+            return;
         }
 
+        this.mSettlePending = false;
+        this.enqueueScrollPosition(percent, index);
     }
 
-    private void drawScrollDown(Canvas canvas, int dotCount) {
-        float rx = this.getDrawStartX();
-        float ry = this.getDrawStartY();
-        Log.d("PageIndicator", "++++++ scroll down Y = " + this.mScrollY);
-        Log.d("PageIndicator", "++++++ scroll down rY= " + ry);
-        int firstIndex = this.mFirstVisibleIndex;
-        int selectIndex = this.mCurrentSelectedIndex - firstIndex;
-        int nextSelectIndex = this.mNextSelectedIndex - firstIndex;
-        ++selectIndex;
-        ++nextSelectIndex;
+    void onDispatchedScrollStateChanged(RecyclerView recyclerView, IndicatorPositionProvider provider, int newState) {
+        boolean resync = false;
+        if (newState == RecyclerView.SCROLL_STATE_SETTLING) {
+            IndicatorScrollDispatcher dispatcher = IndicatorScrollDispatcher.peek(recyclerView);
+            if (dispatcher != null && dispatcher.getFlingTarget() != RecyclerView.NO_POSITION) {
+                this.onFlingStarted(dispatcher.getFlingTarget(), dispatcher.getFlingDuration());
+            }
+        }
+        if (this.mJumping && newState != RecyclerView.SCROLL_STATE_SETTLING) {
+            // a drag takes over from the jump, and a list at rest short of the target means the fling estimate was off
+            this.retargetJump(recyclerView, provider);
+        }
+        if (this.mPipeline.getQualityGovernor() != null) {
+            this.setQualitySampling(newState != RecyclerView.SCROLL_STATE_IDLE);
+        }
+        if (newState == RecyclerView.SCROLL_STATE_IDLE && this.mSettlePending) {
+            this.mSettlePending = false;
+            resync = true;
+        }
+        if (resync && provider.update(recyclerView, 0, 0)) {
+            this.enqueueScrollPosition(provider.getPercent(), provider.getIndex());
+        }
 
-        for(int i = 0; i < dotCount; ++i) {
-            float radius;
-            if (i == 0) {
-                if (this.mScrollY == (float)(-(this.mDotRadius * 2 + this.mDotDelta))) {
-                    radius = (float)this.mDotRadius;
-                } else if (this.mNextSelectedIndex == this.mDotVisibleCount / 2) {
-                    radius = (float)this.mDotRadiusMin + (float)(this.mDotRadius - this.mDotRadiusMin) * (this.mScrollPercent + 1.0F);
-                } else {
-                    radius = (float)this.mDotRadiusMin;
-                }
-            } else if (i == 1) {
-                if (firstIndex == 0) {
-                    radius = (float)this.mDotRadius;
-                } else if (this.mCurrentSelectedIndex > this.mDotCount - this.mDotVisibleCount / 2 - 1) {
-                    radius = (float)this.mDotRadiusMin;
-                } else if (this.mScrollY == 0.0F) {
-                    radius = (float)this.mDotRadius;
-                } else {
-                    radius = (float)this.mDotRadiusMin + (float)(this.mDotRadius - this.mDotRadiusMin) * (this.mScrollPercent + 1.0F);
-                }
-            } else if (i == 2) {
-                if (firstIndex == 0) {
-                    radius = (float)this.mDotRadius;
-                } else if (this.mCurrentSelectedIndex > this.mDotCount - this.mDotVisibleCount / 2 - 1) {
-                    radius = (float)this.mDotRadius;
-                } else if (this.mScrollY == 0.0F) {
-                    radius = (float)this.mDotRadius;
-                } else {
-                    radius = (float)this.mDotRadius;
-                }
-            } else if (i == dotCount - 2) {
-                if (firstIndex == 0) {
-                    radius = (float)this.mDotRadius;
-                } else if (this.mCurrentSelectedIndex > this.mDotCount - this.mDotVisibleCount / 2 - 1) {
-                    radius = (float)this.mDotRadius;
-                } else {
-                    radius = (float)this.mDotRadius - (float)(this.mDotRadius - this.mDotRadiusMin) * (this.mScrollPercent + 1.0F);
-                }
-            } else if (i == dotCount - 1) {
-                if (firstIndex == 0) {
-                    radius = (float)this.mDotRadiusMin;
-                } else if (this.mCurrentSelectedIndex > this.mDotCount - this.mDotVisibleCount / 2 - 1) {
-                    radius = (float)this.mDotRadius;
-                } else if (this.mCurrentSelectedIndex == this.mDotCount - this.mDotVisibleCount / 2 - 1) {
-                    radius = (float)this.mDotRadius - (float)(this.mDotRadius - this.mDotRadiusMin) * (this.mScrollPercent + 1.0F);
-                } else {
-                    radius = (float)this.mDotRadiusMin;
-                }
-            } else {
-                radius = (float)this.mDotRadius;
-            }
-
-            float alpha;
-            if (i == selectIndex) {
-                alpha = this.mDotAlphaMin - (this.mDotAlpha - this.mDotAlphaMin) * this.mScrollPercent;
-            } else if (i == nextSelectIndex) {
-                alpha = this.mDotAlpha + (this.mDotAlpha - this.mDotAlphaMin) * this.mScrollPercent;
-            } else if (i == dotCount - 1) {
-                if (this.mScrollY == (float)(-(this.mDotRadius * 2 + this.mDotDelta))) {
-                    alpha = this.mDotAlphaMin;
-                } else {
-                    alpha = this.mDotAlphaMin - this.mDotAlphaMin * (1.0F + this.mScrollPercent);
-                }
-            } else if (i == 0) {
-                if (this.mScrollY == (float)(-(this.mDotRadius * 2 + this.mDotDelta))) {
-                    alpha = this.mDotAlphaMin;
-                } else {
-                    alpha = this.mDotAlphaMin * (1.0F + this.mScrollPercent);
-                }
-            } else {
-                alpha = this.mDotAlphaMin;
+    }
+
+    // the window slides on from wherever the jump left it to the list's real position instead of finishing the stale animation
+    private void retargetJump(RecyclerView recyclerView, IndicatorPositionProvider provider) {
+        IndicatorModel model = this.mModel;
+        float from = model.getWindowPosition();
+        this.mJumping = false;
+        this.mHasPendingPosition = false;
+        model.cancelWindowAnimation();
+        if (provider.update(recyclerView, 0, 0)) {
+            int index = provider.getIndex();
+            float percent = provider.getPercent();
+            this.applyScrollPosition(0.0F, index);
+            if (percent != 0.0F) {
+                this.applyScrollPosition(percent, index);
             }
 
-            if ((i != 0 || this.mScrollY != (float)(-(this.mDotRadius * 2 + this.mDotDelta)) && ry + (float)this.mDotRadius >= (float)this.getPaddingTop()) && (i != dotCount - 1 || ry - (float)this.mDotRadius <= (float)(this.getHeight() - this.getPaddingBottom() - this.getPaddingTop()))) {
-                Log.d("PageIndicator", "++++++  index " + i + ", radius " + radius + "  dot count " + dotCount + "  ry " + ry);
-                this.mDotPaint.setAlpha((int)(alpha * 255.0F));
-                this.drawDot(canvas, rx, ry, radius, this.mDotPaint);
+            model.animateWindow(from, model.getFirstVisibleIndex(), SystemClock.uptimeMillis(), WINDOW_ANIMATION_DURATION);
+            if (model.isWindowAnimating()) {
+                this.postInvalidateOnAnimation();
             }
+        } else {
+            this.invalidateFrame();
+        }
+
+    }
 
-            ry = ry + (float)this.mDotDelta + (float)(this.mDotRadius * 2);
+    // a fling across several pages slides the window once to where it lands, the pages passed on the way cost nothing
+    private void onFlingStarted(int index, int duration) {
+        IndicatorModel model = this.mModel;
+        int dot = index - model.getPageFirstIndex();
+        if (!this.mJumping && model.getSections() == null && dot >= 0 && dot < model.getDotCount() && Math.abs(dot - model.getCurrentSelectedIndex()) > 1) {
+            model.jumpToDot(dot, SystemClock.uptimeMillis(), Math.max(WINDOW_ANIMATION_DURATION, (long)duration));
+            this.mHasPendingPosition = false;
+            this.mLastAppliedIndex = index;
+            this.mJumpTarget = index;
+            this.mJumping = true;
+            this.postInvalidateOnAnimation();
         }
+    }
 
+    public void setTouchNavigationEnabled(boolean touchNavigationEnabled) {
+        this.mTouchNavigationEnabled = touchNavigationEnabled;
     }
 
-    private void drawDot(Canvas canvas, float rx, float ry, float radius, Paint paint) {
-        canvas.drawCircle(rx, ry, radius, paint);
+    public boolean isTouchNavigationEnabled() {
+        return this.mTouchNavigationEnabled;
     }
 
-    private void drawScrollNone(Canvas canvas, int dotCount) {
-        Log.d("PageIndicator", "draw none");
-        float rx = this.getDrawStartX();
-        float ry = this.getDrawStartY();
-        int firstIndex = this.mFirstVisibleIndex;
-        int selectIndex = this.mCurrentSelectedIndex - firstIndex;
+    public boolean onTouchEvent(MotionEvent event) {
+        if (this.mTouchNavigationEnabled && this.getAttachedRecyclerView() != null) {
+            int dot = this.mModel.findDotAt(event.getY());
+            switch(event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                this.mTouchDot = dot;
+                this.mScrubbing = false;
+                if (dot >= 0 && this.getParent() != null) {
+                    this.getParent().requestDisallowInterceptTouchEvent(true);
+                }
 
-        for(int i = 0; i < dotCount; ++i) {
-            float radius;
-            if (i == 0) {
-                if (firstIndex == 0) {
-                    if (this.mCurrentSelectedIndex > this.mDotVisibleCount / 2) {
-                        radius = (float)this.mDotRadiusMin;
-                    } else {
-                        radius = (float)this.mDotRadius;
-                    }
-                } else {
-                    radius = (float)this.mDotRadiusMin;
+                return dot >= 0;
+            case MotionEvent.ACTION_MOVE:
+                if (dot >= 0 && dot != this.mTouchDot) {
+                    this.mTouchDot = dot;
+                    this.mScrubbing = true;
+                    this.jumpTo(dot, false);
                 }
-            } else if (i == dotCount - 1) {
-                if (this.mFirstVisibleIndex == this.mDotCount - this.mDotVisibleCount) {
-                    radius = (float)this.mDotRadius;
-                } else {
-                    radius = (float)this.mDotRadiusMin;
+
+                return true;
+            case MotionEvent.ACTION_UP:
+                if (dot >= 0 && !this.mScrubbing) {
+                    this.mClickDot = dot;
+                    this.performClick();
                 }
-            } else {
-                radius = (float)this.mDotRadius;
-            }
 
-            float alpha;
-            if (i == selectIndex) {
-                alpha = this.mDotAlpha + (this.mDotAlpha - this.mDotAlphaMin) * this.mScrollPercent;
-            } else {
-                alpha = this.mDotAlphaMin;
+                this.mTouchDot = -1;
+                this.mScrubbing = false;
+                return true;
+            case MotionEvent.ACTION_CANCEL:
+                this.mTouchDot = -1;
+                this.mScrubbing = false;
+                return true;
+            default:
+                return true;
             }
+        } else {
+            return super.onTouchEvent(event);
+        }
+    }
+
+    // a tap carries the touched dot, a click without one (accessibility, keyboard) moves to the next page
+    public boolean performClick() {
+        int dot = this.mClickDot >= 0 ? this.mClickDot : this.mModel.getCurrentSelectedIndex() + 1;
+        this.mClickDot = -1;
+        boolean handled = super.performClick();
+        if (this.mTouchNavigationEnabled && this.getAttachedRecyclerView() != null && dot < this.mModel.getDotCount()) {
+            this.jumpTo(dot, true);
+            return true;
+        } else {
+            return handled;
+        }
+    }
 
-            if ((i != 0 || ry + (float)this.mDotRadius >= (float)this.getPaddingTop()) && (i != dotCount - 1 || ry - (float)this.mDotRadius <= (float)(this.getHeight() - this.getPaddingBottom() - this.getPaddingTop()))) {
-                this.mDotPaint.setAlpha((int)(alpha * 255.0F));
-                this.drawDot(canvas, rx, ry, radius, this.mDotPaint);
+    public void onInitializeAccessibilityNodeInfo(AccessibilityNodeInfo info) {
+        super.onInitializeAccessibilityNodeInfo(info);
+        if (this.mTouchNavigationEnabled && this.getAttachedRecyclerView() != null) {
+            int current = this.mModel.getCurrentSelectedIndex();
+            info.setScrollable(true);
+            if (current > 0) {
+                info.addAction(AccessibilityNodeInfo.ACTION_SCROLL_BACKWARD);
+            }
+            if (current < this.mModel.getDotCount() - 1) {
+                info.addAction(AccessibilityNodeInfo.ACTION_SCROLL_FORWARD);
+                info.addAction(AccessibilityNodeInfo.ACTION_CLICK);
             }
+        }
+
+    }
 
-            ry = ry + (float)this.mDotDelta + (float)(this.mDotRadius * 2);
+    public boolean performAccessibilityAction(int action, Bundle arguments) {
+        if (this.mTouchNavigationEnabled && this.getAttachedRecyclerView() != null) {
+            int current = this.mModel.getCurrentSelectedIndex();
+            if (action == AccessibilityNodeInfo.ACTION_CLICK && current < this.mModel.getDotCount() - 1) {
+                return this.performClick();
+            }
+            if (action == AccessibilityNodeInfo.ACTION_SCROLL_FORWARD && current < this.mModel.getDotCount() - 1) {
+                this.jumpTo(current + 1, true);
+                return true;
+            }
+            if (action == AccessibilityNodeInfo.ACTION_SCROLL_BACKWARD && current > 0) {
+                this.jumpTo(current - 1, true);
+                return true;
+            }
         }
 
+        return super.performAccessibilityAction(action, arguments);
     }
 
-    private void drawScrollNoneNormal(Canvas canvas, int dotCount) {
-        Log.d("PageIndicator", "draw none");
-        float rx = this.getDrawStartX();
-        float ry = this.getDrawStartY();
-        float radius = (float)this.mDotRadius;
-        int firstIndex = this.mFirstVisibleIndex;
-        int selectIndex = this.mCurrentSelectedIndex - firstIndex;
+    public void jumpToDot(int dotIndex) {
+        this.jumpTo(dotIndex, true);
+    }
 
-        for(int i = 0; i < dotCount; ++i) {
-            float alpha;
-            if (i == selectIndex) {
-                alpha = this.mDotAlpha + (this.mDotAlpha - this.mDotAlphaMin) * this.mScrollPercent;
+    // cost is flat in the distance: the list binds only the pages around the target and the window slides there in one animation
+    private void jumpTo(int dotIndex, boolean smooth) {
+        RecyclerView recyclerView = this.getAttachedRecyclerView();
+        IndicatorModel model = this.mModel;
+        if (recyclerView != null && dotIndex >= 0 && dotIndex < model.getDotCount()) {
+            // the jump target and the model stay in dot units, only the RecyclerView is given items
+            int itemsPerDot = this.getItemsPerDot();
+            int from = (int)model.getAdapterPosition(model.getCurrentSelectedIndex());
+            int position = (int)model.getAdapterPosition(dotIndex);
+            int item = (int)model.getItemPosition(dotIndex, itemsPerDot);
+            model.jumpToDot(dotIndex, SystemClock.uptimeMillis(), WINDOW_ANIMATION_DURATION);
+            this.mHasPendingPosition = false;
+            this.mLastAppliedIndex = position;
+            this.mJumpTarget = position;
+            this.mJumping = true;
+            this.postInvalidateOnAnimation();
+            recyclerView.removeCallbacks(this.mSmoothScrollRunnable);
+            if (!smooth) {
+                recyclerView.scrollToPosition(item);
+            } else if (Math.abs(position - from) > 1) {
+                recyclerView.scrollToPosition(position > from ? item - itemsPerDot : item + itemsPerDot);
+                recyclerView.post(this.mSmoothScrollRunnable);
             } else {
-                alpha = this.mDotAlphaMin;
+                recyclerView.smoothScrollToPosition(item);
             }
+        }
+    }
 
-            this.mDotPaint.setAlpha((int)(alpha * 255.0F));
-            this.drawDot(canvas, rx, ry, radius, this.mDotPaint);
-            ry = ry + (float)this.mDotDelta + (float)(this.mDotRadius * 2);
+    private void recordScrolled(IndicatorPositionProvider provider, int dy, int index, float percent) {
+        if (provider instanceof ExtentPositionProvider && ((ExtentPositionProvider)provider).getExtent() > 0) {
+            ExtentPositionProvider extentProvider = (ExtentPositionProvider)provider;
+            this.mTraceRecorder.recordScrolled(dy, index, extentProvider.getItemStart(), extentProvider.getExtent());
+        } else {
+            // other providers only expose the percent, stored as fixed point over PERCENT_ONE
+            this.mTraceRecorder.recordScrolled(dy, index, Math.round(percent * (float)ScrollTraceRecorder.PERCENT_ONE), ScrollTraceRecorder.PERCENT_ONE);
         }
 
     }
 
-    public void setScrollPosition(float percent, int index) {
-        if (index < this.mPageFirstIndex + this.mDotCount - 1) {
-            index -= this.mPageFirstIndex;
-            if (index >= 0) {
-                if (percent == 0.0F) {
-                    Log.d("PageIndicator", "++++++++++++++ percent = 0");
-                    if (index > this.mCurrentSelectedIndex) {
-                        if (index <= this.mDotVisibleCount / 2) {
-                            this.mFirstVisibleIndex = 0;
-                        } else if (index == this.mDotCount - 1 && this.mDotCount < this.mDotVisibleCount) {
-                            this.mFirstVisibleIndex = 0;
-                        } else if (index >= this.mDotCount - this.mDotVisibleCount / 2) {
-                            this.mFirstVisibleIndex = this.mDotCount - this.mDotVisibleCount;
-                        } else {
-                            this.mFirstVisibleIndex = index - this.mDotVisibleCount / 2;
-                        }
-                    } else if (index < this.mCurrentSelectedIndex) {
-                        if (index <= this.mDotVisibleCount / 2) {
-                            this.mFirstVisibleIndex = 0;
-                        } else if (index >= this.mDotCount - this.mDotVisibleCount / 2 - 1) {
-                            this.mFirstVisibleIndex = this.mDotCount - this.mDotVisibleCount;
-                        } else {
-                            this.mFirstVisibleIndex = index - this.mDotVisibleCount / 2;
-                        }
-                    }
+    public void setTraceRecorder(@Nullable ScrollTraceRecorder traceRecorder) {
+        this.mTraceRecorder = traceRecorder;
+    }
 
-                    this.mCurrentSelectedIndex = index;
-                    this.mNextSelectedIndex = index;
-                    this.mScrollPercent = 0.0F;
-                } else if (this.mStartedPercent == 0.0F) {
-                    this.mStartedPercent = percent;
-                } else {
-                    if (index == this.mCurrentSelectedIndex) {
-                        this.mNextSelectedIndex = index + 1;
-                    } else if (index + 1 == this.mCurrentSelectedIndex) {
-                        this.mNextSelectedIndex = index;
-                    } else if (index > this.mCurrentSelectedIndex) {
-                        this.mNextSelectedIndex = index;
-                        this.mCurrentSelectedIndex = index + 1;
-                        this.mFirstVisibleIndex = this.mCurrentSelectedIndex - this.mDotVisibleCount / 2;
-                        if (this.mFirstVisibleIndex > this.mDotCount - this.mDotVisibleCount) {
-                            this.mFirstVisibleIndex = this.mDotCount - this.mDotVisibleCount;
-                        }
-                    } else if (index - 1 == this.mCurrentSelectedIndex) {
-                        this.mNextSelectedIndex = index;
-                    } else if (index < this.mCurrentSelectedIndex) {
-                        this.mNextSelectedIndex = index;
-                        this.mCurrentSelectedIndex = index - 1;
-                        this.mFirstVisibleIndex = this.mCurrentSelectedIndex - this.mDotVisibleCount / 2;
-                        if (this.mFirstVisibleIndex < 0) {
-                            this.mFirstVisibleIndex = 0;
-                        }
-                    }
+    @Nullable
+    public ScrollTraceRecorder getTraceRecorder() {
+        return this.mTraceRecorder;
+    }
 
-                    Log.d("PageIndicator", "------ 向上滑动" + (this.mNextSelectedIndex == this.mCurrentSelectedIndex));
+    // UI thread only, and one event per frame: this is what startTraceReplay feeds, driving it from replay() applies a whole trace without a draw
+    @NonNull
+    public ScrollTraceReplayer.Target getTraceTarget() {
+        if (this.mTraceTarget == null) {
+            this.mTraceTarget = new ScrollTraceReplayer.Target() {
+                public void onScrolled(int dy, int index, float percent) {
+                    PageIndicator.this.mPipeline.onScrolled(dy, index, percent);
+                    PageIndicator.this.enqueueScrollPosition(percent, index);
                 }
 
-                this.mScrollPercent = percent;
-                Log.d("PageIndicator", "scroll percent = " + percent);
-                Log.d("PageIndicator", "started  selected dot precent = " + this.mStartedPercent);
-                Log.d("PageIndicator", "        selected dot index = " + index);
-                Log.d("PageIndicator", "current selected dot index = " + this.mCurrentSelectedIndex);
-                Log.d("PageIndicator", "current selected dot nextIndex = " + this.mNextSelectedIndex);
-                if (this.mNextSelectedIndex > this.mCurrentSelectedIndex) {
-                    if (this.mCurrentSelectedIndex < this.mDotVisibleCount / 2) {
-                        this.mScrollY = 0.0F;
-                    } else if (this.mNextSelectedIndex >= this.mDotCount - this.mDotVisibleCount / 2) {
-                        this.mScrollY = 0.0F;
-                    } else {
-                        this.mScrollY = percent * (float)(this.mDotRadius * 2 + this.mDotDelta);
-                    }
-                } else if (this.mNextSelectedIndex < this.mCurrentSelectedIndex) {
-                    if (this.mNextSelectedIndex < this.mDotVisibleCount / 2) {
-                        this.mScrollY = (float)(-(this.mDotRadius * 2 + this.mDotDelta));
-                    } else if (this.mCurrentSelectedIndex >= this.mDotCount - this.mDotVisibleCount / 2) {
-                        this.mScrollY = (float)(-(this.mDotRadius * 2 + this.mDotDelta));
-                    } else {
-                        this.mScrollY = percent * (float)(this.mDotRadius * 2 + this.mDotDelta);
-                        Log.d("PageIndicator", "++++++ scroll Y = " + this.mScrollY);
-                    }
-                } else {
-                    this.mScrollY = percent * (float)(this.mDotRadius * 2 + this.mDotDelta);
+                public void onScrollPosition(float percent, int index) {
+                    PageIndicator.this.applyScrollPosition(percent, index);
                 }
+            };
+        }
 
-                this.invalidate();
-            }
+        return this.mTraceTarget;
+    }
+
+    // call on the UI thread; events follow the frame clock, at most one a frame and none before its recorded time, so each one is drawn
+    public void startTraceReplay(@NonNull ScrollTraceReplayer replayer) {
+        this.stopTraceReplay();
+        this.mTraceReplayer = replayer;
+        this.mTraceReplayStart = -1L;
+        this.mTraceEventPending = false;
+        Choreographer.getInstance().postFrameCallback(this.mTraceReplayCallback);
+    }
+
+    public void stopTraceReplay() {
+        if (this.mTraceReplayer != null) {
+            Choreographer.getInstance().removeFrameCallback(this.mTraceReplayCallback);
+            this.mTraceReplayer = null;
         }
+
     }
 
-    public void attachToRecyclerView(@NonNull RecyclerView recyclerView) {
-        LayoutManager layoutManger = recyclerView.getLayoutManager();
-        if (layoutManger == null) {
-            Log.e("PageIndicator", "not supported");
-        } else if (layoutManger instanceof LinearLayoutManager) {
-            if (((LinearLayoutManager)layoutManger).getOrientation() == 1) {
-                recyclerView.addOnScrollListener(new PageIndicator.IndicatorScrollListener(this, (LinearLayoutManager)layoutManger));
-            } else {
-                Log.e("PageIndicator", "not supported");
+    public boolean isReplayingTrace() {
+        return this.mTraceReplayer != null;
+    }
+
+    private void stepTraceReplay(long frameTimeNanos) {
+        ScrollTraceReplayer replayer = this.mTraceReplayer;
+        if (replayer != null) {
+            if (this.mTraceReplayStart < 0L) {
+                this.mTraceReplayStart = frameTimeNanos;
             }
-        } else {
-            Log.e("PageIndicator", "not supported");
-        }
 
+            try {
+                if (!this.mTraceEventPending) {
+                    if (!replayer.next()) {
+                        this.mTraceReplayer = null;
+                        return;
+                    }
+
+                    this.mTraceEventPending = true;
+                }
+                if (replayer.getTimeNanos() <= frameTimeNanos - this.mTraceReplayStart) {
+                    this.mTraceEventPending = false;
+                    replayer.apply(this.getTraceTarget());
+                }
+
+                Choreographer.getInstance().postFrameCallback(this.mTraceReplayCallback);
+            } catch (IOException e) {
+                Log.e(TAG, "trace replay stopped", e);
+                this.mTraceReplayer = null;
+            }
+        }
     }
 
     public static final class IndicatorScrollListener extends OnScrollListener {
         private PageIndicator mIndicator;
-        private LinearLayoutManager mLinearLayoutManager;
+        private IndicatorPositionProvider mPositionProvider;
 
         public IndicatorScrollListener(@NonNull PageIndicator pageIndicator, @NonNull LinearLayoutManager linearLayoutManager) {
+            this(pageIndicator, new LinearPositionProvider(linearLayoutManager));
+        }
+
+        public IndicatorScrollListener(@NonNull PageIndicator pageIndicator, @NonNull IndicatorPositionProvider positionProvider) {
             this.mIndicator = pageIndicator;
-            this.mLinearLayoutManager = linearLayoutManager;
+            this.mPositionProvider = positionProvider;
         }
 
         public void onScrollStateChanged(RecyclerView recyclerView, int newState) {
             super.onScrollStateChanged(recyclerView, newState);
+            this.mIndicator.onDispatchedScrollStateChanged(recyclerView, this.mPositionProvider, newState);
         }
 
         public void onScrolled(RecyclerView recyclerView, int dx, int dy) {
             super.onScrolled(recyclerView, dx, dy);
-            Log.d("PageIndicator", "onScrolled " + recyclerView.getScrollY());
-            Log.d("PageIndicator", "onScrolled dy = " + dy);
-            Log.d("PageIndicator", "linearLayout " + this.mLinearLayoutManager.getHeight());
-            int firstVisibleItem = this.mLinearLayoutManager.findFirstVisibleItemPosition();
-            ViewHolder viewHolder = recyclerView.findViewHolderForAdapterPosition(firstVisibleItem);
-            float positionX = viewHolder.itemView.getY();
-            float height = (float)viewHolder.itemView.getHeight();
-            this.mIndicator.setScrollPosition(positionX / height, firstVisibleItem);
+            IndicatorPositionProvider provider = this.mPositionProvider;
+            if (provider.update(recyclerView, dx, dy)) {
+                this.mIndicator.onDispatchedScroll(recyclerView, provider, dy);
+            }
         }
     }
 }
@@ -0,0 +1,24 @@
+
+import android.support.annotation.NonNull;
+import android.support.v7.widget.LinearLayoutManager;
+import android.support.v7.widget.RecyclerView;
+import android.view.View;
+
+public class PagerSnapPositionProvider extends ExtentPositionProvider {
+    private final LinearLayoutManager mLayoutManager;
+
+    public PagerSnapPositionProvider(@NonNull LinearLayoutManager layoutManager) {
+        super(layoutManager.getOrientation() == LinearLayoutManager.VERTICAL);
+        this.mLayoutManager = layoutManager;
+    }
+
+    protected boolean resync(@NonNull RecyclerView recyclerView) {
+        int position = this.mLayoutManager.findFirstVisibleItemPosition();
+        View view = position == RecyclerView.NO_POSITION ? null : this.mLayoutManager.findViewByPosition(position);
+        if (view == null) {
+            return this.setAnchor(RecyclerView.NO_POSITION, 0, 0);
+        } else {
+            return this.mVertical ? this.setAnchor(position, view.getTop(), recyclerView.getHeight()) : this.setAnchor(position, view.getLeft(), recyclerView.getWidth());
+        }
+    }
+}
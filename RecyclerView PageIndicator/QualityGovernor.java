@@ -0,0 +1,197 @@
+
+public final class QualityGovernor {
+    public static final int LEVEL_FULL = 0;
+    public static final int LEVEL_NO_ANTI_ALIAS = 1;
+    public static final int LEVEL_SNAP_RADIUS = 2;
+    public static final int LEVEL_SETTLE_ONLY = 3;
+    public static final long DEFAULT_DRAW_BUDGET_NANOS = IndicatorMetrics.DEFAULT_BUDGET_NANOS;
+    // more than one and a half vsyncs at 60Hz means the frame was dropped
+    public static final long DEFAULT_FRAME_BUDGET_NANOS = 25000000L;
+    public static final int DEFAULT_WINDOW_FRAMES = 30;
+    public static final int DEFAULT_STEP_DOWN_FRAMES = 6;
+    public static final int DEFAULT_STEP_UP_WINDOWS = 4;
+    private static final String[] LEVEL_NAMES = new String[]{"full", "noAntiAlias", "snapRadius", "settleOnly"};
+    private long mDrawBudgetNanos = DEFAULT_DRAW_BUDGET_NANOS;
+    private long mFrameBudgetNanos = DEFAULT_FRAME_BUDGET_NANOS;
+    private int mWindowFrames = DEFAULT_WINDOW_FRAMES;
+    private int mStepDownFrames = DEFAULT_STEP_DOWN_FRAMES;
+    private int mStepUpWindows = DEFAULT_STEP_UP_WINDOWS;
+    private int mMaxLevel = LEVEL_SETTLE_ONLY;
+    private int mLevel = LEVEL_FULL;
+    private int mSkippedLevels;
+    private long mLastFrameTimeNanos = -1L;
+    private boolean mPendingLateDraw;
+    private int mSampledFrames;
+    private int mLateFrames;
+    private int mCleanWindows;
+    private Listener mListener;
+
+    public static String getLevelName(int level) {
+        return LEVEL_NAMES[level];
+    }
+
+    public int getLevel() {
+        return this.mLevel;
+    }
+
+    public void setListener(Listener listener) {
+        this.mListener = listener;
+    }
+
+    public Listener getListener() {
+        return this.mListener;
+    }
+
+    public void setDrawBudgetNanos(long drawBudgetNanos) {
+        this.mDrawBudgetNanos = drawBudgetNanos;
+    }
+
+    public long getDrawBudgetNanos() {
+        return this.mDrawBudgetNanos;
+    }
+
+    public void setFrameBudgetNanos(long frameBudgetNanos) {
+        this.mFrameBudgetNanos = frameBudgetNanos;
+    }
+
+    public long getFrameBudgetNanos() {
+        return this.mFrameBudgetNanos;
+    }
+
+    // frames judged together before the level may change
+    public void setWindowFrames(int windowFrames) {
+        this.mWindowFrames = Math.max(1, windowFrames);
+    }
+
+    public int getWindowFrames() {
+        return this.mWindowFrames;
+    }
+
+    // late frames within one window that step quality down
+    public void setStepDownFrames(int stepDownFrames) {
+        this.mStepDownFrames = Math.max(1, stepDownFrames);
+    }
+
+    public int getStepDownFrames() {
+        return this.mStepDownFrames;
+    }
+
+    // consecutive windows without a late frame that step quality back up
+    public void setStepUpWindows(int stepUpWindows) {
+        this.mStepUpWindows = Math.max(1, stepUpWindows);
+    }
+
+    public int getStepUpWindows() {
+        return this.mStepUpWindows;
+    }
+
+    public void setMaxLevel(int maxLevel) {
+        this.mMaxLevel = Math.max(LEVEL_FULL, Math.min(LEVEL_SETTLE_ONLY, maxLevel));
+        if (this.mLevel > this.mMaxLevel) {
+            this.setLevel(this.mMaxLevel);
+        }
+
+    }
+
+    public int getMaxLevel() {
+        return this.mMaxLevel;
+    }
+
+    // a level that would change nothing for the current renderer is passed over in both directions
+    public void setLevelSkipped(int level, boolean skipped) {
+        if (skipped) {
+            this.mSkippedLevels |= 1 << level;
+        } else {
+            this.mSkippedLevels &= ~(1 << level);
+        }
+
+    }
+
+    public boolean isLevelSkipped(int level) {
+        return (this.mSkippedLevels & 1 << level) != 0;
+    }
+
+    public void recordDraw(long nanos) {
+        if (nanos > this.mDrawBudgetNanos) {
+            this.mPendingLateDraw = true;
+        }
+
+    }
+
+    // returns true when the level changed
+    public boolean onFrame(long frameTimeNanos) {
+        long last = this.mLastFrameTimeNanos;
+        this.mLastFrameTimeNanos = frameTimeNanos;
+        if (last < 0L) {
+            return false;
+        } else {
+            if (frameTimeNanos - last > this.mFrameBudgetNanos || this.mPendingLateDraw) {
+                ++this.mLateFrames;
+            }
+
+            this.mPendingLateDraw = false;
+            if (++this.mSampledFrames < this.mWindowFrames) {
+                return false;
+            } else {
+                int late = this.mLateFrames;
+                this.mSampledFrames = 0;
+                this.mLateFrames = 0;
+                if (late >= this.mStepDownFrames) {
+                    this.mCleanWindows = 0;
+                    return this.setLevel(this.nextLevel(1));
+                } else if (late == 0 && ++this.mCleanWindows >= this.mStepUpWindows) {
+                    this.mCleanWindows = 0;
+                    return this.setLevel(this.nextLevel(-1));
+                } else {
+                    if (late != 0) {
+                        this.mCleanWindows = 0;
+                    }
+
+                    return false;
+                }
+            }
+        }
+    }
+
+    // the gap until the next onFrame is idle time, not a late frame
+    public void pause() {
+        this.mLastFrameTimeNanos = -1L;
+        this.mPendingLateDraw = false;
+    }
+
+    public void reset() {
+        this.pause();
+        this.mSampledFrames = 0;
+        this.mLateFrames = 0;
+        this.mCleanWindows = 0;
+        this.setLevel(LEVEL_FULL);
+    }
+
+    private int nextLevel(int step) {
+        int level = this.mLevel + step;
+
+        while(level > LEVEL_FULL && level < this.mMaxLevel && this.isLevelSkipped(level)) {
+            level += step;
+        }
+
+        return Math.max(LEVEL_FULL, Math.min(this.mMaxLevel, level));
+    }
+
+    private boolean setLevel(int level) {
+        int oldLevel = this.mLevel;
+        if (level == oldLevel) {
+            return false;
+        } else {
+            this.mLevel = level;
+            if (this.mListener != null) {
+                this.mListener.onLevelChanged(oldLevel, level);
+            }
+
+            return true;
+        }
+    }
+
+    public interface Listener {
+        void onLevelChanged(int oldLevel, int newLevel);
+    }
+}
@@ -0,0 +1,105 @@
+
+import java.util.Arrays;
+
+public final class RasterDotSink implements DotSink {
+    private final int mWidth;
+    private final int mHeight;
+    private final int[] mPixels;
+    private int mColor = -1;
+
+    public RasterDotSink(int width, int height) {
+        this.mWidth = width;
+        this.mHeight = height;
+        this.mPixels = new int[width * height];
+    }
+
+    public int getWidth() {
+        return this.mWidth;
+    }
+
+    public int getHeight() {
+        return this.mHeight;
+    }
+
+    public int[] getPixels() {
+        return this.mPixels;
+    }
+
+    public void setColor(int color) {
+        this.mColor = color;
+    }
+
+    public void clear(int argb) {
+        Arrays.fill(this.mPixels, argb);
+    }
+
+    public void drawDot(float cx, float cy, float radius, int alpha) {
+        if (radius > 0.0F && alpha > 0) {
+            int a = Math.min(alpha, 255);
+            int left = Math.max(0, (int)Math.floor((double)(cx - radius - 1.0F)));
+            int top = Math.max(0, (int)Math.floor((double)(cy - radius - 1.0F)));
+            int right = Math.min(this.mWidth, (int)Math.ceil((double)(cx + radius + 1.0F)));
+            int bottom = Math.min(this.mHeight, (int)Math.ceil((double)(cy + radius + 1.0F)));
+            int color = this.mColor;
+            int srcAlpha = (color >>> 24) * a / 255;
+            int srcR = color >> 16 & 255;
+            int srcG = color >> 8 & 255;
+            int srcB = color & 255;
+            float outer = radius + 0.5F;
+            float inner = radius - 0.5F;
+            float innerSquared = inner > 0.0F ? inner * inner : 0.0F;
+            float outerSquared = outer * outer;
+
+            for(int py = top; py < bottom; ++py) {
+                float dy = (float)py + 0.5F - cy;
+                int row = py * this.mWidth;
+
+                for(int px = left; px < right; ++px) {
+                    float dx = (float)px + 0.5F - cx;
+                    float distanceSquared = dx * dx + dy * dy;
+                    if (distanceSquared < outerSquared) {
+                        int coverage;
+                        if (distanceSquared <= innerSquared) {
+                            coverage = srcAlpha;
+                        } else {
+                            coverage = (int)((outer - (float)Math.sqrt((double)distanceSquared)) * (float)srcAlpha);
+                        }
+
+                        if (coverage > 0) {
+                            this.mPixels[row + px] = blend(this.mPixels[row + px], srcR, srcG, srcB, coverage);
+                        }
+                    }
+                }
+            }
+
+        }
+    }
+
+    private static int blend(int dst, int r, int g, int b, int a) {
+        int inverse = 255 - a;
+        int dstA = dst >>> 24;
+        int outA = a + dstA * inverse / 255;
+        int outR = (r * a + (dst >> 16 & 255) * inverse) / 255;
+        int outG = (g * a + (dst >> 8 & 255) * inverse) / 255;
+        int outB = (b * a + (dst & 255) * inverse) / 255;
+        return outA << 24 | outR << 16 | outG << 8 | outB;
+    }
+
+    public int countDifferentPixels(RasterDotSink other, int tolerance) {
+        if (other.mWidth == this.mWidth && other.mHeight == this.mHeight) {
+            int different = 0;
+
+            for(int i = 0; i < this.mPixels.length; ++i) {
+                int p = this.mPixels[i];
+                int q = other.mPixels[i];
+                if (p != q && (Math.abs((p >>> 24) - (q >>> 24)) > tolerance || Math.abs((p >> 16 & 255) - (q >> 16 & 255)) > tolerance || Math.abs((p >> 8 & 255) - (q >> 8 & 255)) > tolerance || Math.abs((p & 255) - (q & 255)) > tolerance)) {
+                    ++different;
+                }
+            }
+
+            return different;
+        } else {
+            throw new IllegalArgumentException("raster sizes differ");
+        }
+    }
+}
@@ -0,0 +1,74 @@
+
+public final class ScrollOffsetTracker {
+    private long mOffset;
+    private int mExtent;
+    private int mIndex;
+    private float mPercent;
+    private boolean mSynced;
+
+    public boolean isSynced() {
+        return this.mSynced;
+    }
+
+    public void setAnchor(int index, int start, int extent) {
+        this.mExtent = extent;
+        this.mOffset = (long)index * (long)extent - (long)start;
+        this.mSynced = true;
+        this.update(this.indexOf(this.mOffset));
+    }
+
+    public boolean offsetBy(int delta) {
+        this.mOffset += (long)delta;
+        int index = this.indexOf(this.mOffset);
+        if (index != this.mIndex) {
+            return false;
+        } else {
+            this.update(index);
+            return true;
+        }
+    }
+
+    // false when the anchor has to be read again from the views: never synced, a zero delta (layout pass) or a page boundary crossed
+    public boolean scrollBy(int delta) {
+        return this.mSynced && delta != 0 && this.offsetBy(delta);
+    }
+
+    private void update(int index) {
+        this.mIndex = index;
+        this.mPercent = -((float)(this.mOffset - (long)index * (long)this.mExtent) / (float)this.mExtent);
+    }
+
+    private int indexOf(long offset) {
+        long index = offset / (long)this.mExtent;
+        if (offset < 0L && index * (long)this.mExtent != offset) {
+            --index;
+        }
+
+        return (int)index;
+    }
+
+    public int getIndex() {
+        return this.mIndex;
+    }
+
+    public float getPercent() {
+        return this.mPercent;
+    }
+
+    public int getExtent() {
+        return this.mExtent;
+    }
+
+    // start of the anchor item relative to the list, as the view would report it: read at setAnchor and moved by every delta since
+    public int getItemStart() {
+        return (int)((long)this.mIndex * (long)this.mExtent - this.mOffset);
+    }
+
+    public long getOffset() {
+        return this.mOffset;
+    }
+
+    public void invalidate() {
+        this.mSynced = false;
+    }
+}
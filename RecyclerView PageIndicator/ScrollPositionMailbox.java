@@ -0,0 +1,39 @@
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+public final class ScrollPositionMailbox {
+    // index Integer.MIN_VALUE with a zero percent packs to this, negative indices are never published
+    private static final long EMPTY = Long.MIN_VALUE;
+    private final AtomicLong mValue = new AtomicLong(EMPTY);
+    private final AtomicBoolean mScheduled = new AtomicBoolean();
+    private int mIndex;
+    private float mPercent;
+
+    // any thread; last writer wins, returns true when the caller has to schedule a take()
+    public boolean publish(float percent, int index) {
+        this.mValue.set((long)index << 32 | (long)Float.floatToRawIntBits(percent) & 4294967295L);
+        return this.mScheduled.compareAndSet(false, true);
+    }
+
+    // consumer thread; the flag is cleared before the read so a publish racing with it schedules again instead of getting lost
+    public boolean take() {
+        this.mScheduled.set(false);
+        long value = this.mValue.getAndSet(EMPTY);
+        if (value == EMPTY) {
+            return false;
+        } else {
+            this.mIndex = (int)(value >> 32);
+            this.mPercent = Float.intBitsToFloat((int)value);
+            return true;
+        }
+    }
+
+    public int getIndex() {
+        return this.mIndex;
+    }
+
+    public float getPercent() {
+        return this.mPercent;
+    }
+}
@@ -0,0 +1,139 @@
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+public final class ScrollTraceRecorder implements Closeable {
+    static final int MAGIC = 0x50495452;
+    static final int VERSION = 1;
+    // dt, dy, first visible index, item y, item height; y and height are the provider's anchor start and extent (the extent is the
+    // viewport for PagerSnapPositionProvider), read from the anchor view at a resync and moved by dy in between rather than read per event
+    static final int RECORD_SCROLLED = 1;
+    // dt, index, percent
+    static final int RECORD_SCROLL_POSITION = 2;
+    // percent is stored as fixed point with 16 fractional bits
+    static final int PERCENT_ONE = 65536;
+    private static final int MAX_RECORD_SIZE = 1 + 5 * 10;
+    private final OutputStream mOut;
+    private final byte[] mBuffer = new byte[4096];
+    private int mPosition;
+    private long mLastTime;
+    private int mLastFirst;
+    private int mLastItemY;
+    private int mLastHeight;
+    private int mLastIndex;
+    private int mLastPercent;
+    private long mRecordCount;
+    private IOException mError;
+    private boolean mClosed;
+
+    // records run on the scroll path and every full 4KB buffer is written there, so the stream must not block: a BufferedOutputStream
+    // over a file is enough for short captures, a pipe drained by a worker thread for long ones
+    public ScrollTraceRecorder(OutputStream out) throws IOException {
+        this.mOut = out;
+        this.mLastTime = System.nanoTime();
+        this.mBuffer[0] = (byte)(MAGIC >>> 24);
+        this.mBuffer[1] = (byte)(MAGIC >>> 16);
+        this.mBuffer[2] = (byte)(MAGIC >>> 8);
+        this.mBuffer[3] = (byte)MAGIC;
+        this.mPosition = 4;
+        this.writeVarint((long)VERSION);
+        this.flush();
+    }
+
+    public void recordScrolled(int dy, int firstVisibleIndex, int itemY, int itemHeight) {
+        if (this.ensureSpace()) {
+            this.mBuffer[this.mPosition++] = (byte)RECORD_SCROLLED;
+            this.writeTime();
+            this.writeSigned((long)dy);
+            this.writeSigned((long)firstVisibleIndex - (long)this.mLastFirst);
+            this.writeSigned((long)itemY - (long)this.mLastItemY);
+            this.writeSigned((long)itemHeight - (long)this.mLastHeight);
+            this.mLastFirst = firstVisibleIndex;
+            this.mLastItemY = itemY;
+            this.mLastHeight = itemHeight;
+            ++this.mRecordCount;
+        }
+    }
+
+    public void recordScrollPosition(float percent, int index) {
+        if (this.ensureSpace()) {
+            int fixed = Math.round(percent * (float)PERCENT_ONE);
+            this.mBuffer[this.mPosition++] = (byte)RECORD_SCROLL_POSITION;
+            this.writeTime();
+            this.writeSigned((long)index - (long)this.mLastIndex);
+            this.writeSigned((long)fixed - (long)this.mLastPercent);
+            this.mLastIndex = index;
+            this.mLastPercent = fixed;
+            ++this.mRecordCount;
+        }
+    }
+
+    public long getRecordCount() {
+        return this.mRecordCount;
+    }
+
+    // a failed write stops the recording instead of throwing into the scroll path
+    public IOException getError() {
+        return this.mError;
+    }
+
+    private boolean ensureSpace() {
+        if (this.mError == null && !this.mClosed) {
+            if (this.mBuffer.length - this.mPosition < MAX_RECORD_SIZE) {
+                try {
+                    this.flush();
+                } catch (IOException e) {
+                    this.mError = e;
+                    return false;
+                }
+            }
+
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+    private void writeTime() {
+        long now = System.nanoTime();
+        this.writeVarint((now - this.mLastTime) / 1000L);
+        this.mLastTime = now - (now - this.mLastTime) % 1000L;
+    }
+
+    private void writeSigned(long value) {
+        this.writeVarint(value << 1 ^ value >> 63);
+    }
+
+    private void writeVarint(long value) {
+        while((value & -128L) != 0L) {
+            this.mBuffer[this.mPosition++] = (byte)((int)(value & 127L | 128L));
+            value >>>= 7;
+        }
+
+        this.mBuffer[this.mPosition++] = (byte)((int)value);
+    }
+
+    public void flush() throws IOException {
+        if (this.mPosition > 0) {
+            this.mOut.write(this.mBuffer, 0, this.mPosition);
+            this.mPosition = 0;
+        }
+
+        this.mOut.flush();
+    }
+
+    public void close() throws IOException {
+        if (!this.mClosed) {
+            try {
+                if (this.mError == null) {
+                    this.flush();
+                }
+            } finally {
+                this.mClosed = true;
+                this.mOut.close();
+            }
+
+        }
+    }
+}
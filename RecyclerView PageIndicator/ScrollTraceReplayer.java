@@ -0,0 +1,212 @@
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+public final class ScrollTraceReplayer {
+    public static final int RECORD_SCROLLED = ScrollTraceRecorder.RECORD_SCROLLED;
+    public static final int RECORD_SCROLL_POSITION = ScrollTraceRecorder.RECORD_SCROLL_POSITION;
+    private final InputStream mIn;
+    private final byte[] mBuffer = new byte[4096];
+    private int mPosition;
+    private int mLimit;
+    private int mType;
+    private long mTimeNanos;
+    private int mDy;
+    private int mFirstVisibleIndex;
+    private int mItemY;
+    private int mItemHeight;
+    private int mIndex;
+    private int mPercent;
+
+    public ScrollTraceReplayer(InputStream in) throws IOException {
+        this.mIn = in;
+        int magic = 0;
+
+        for(int i = 0; i < 4; ++i) {
+            int b = this.read();
+            if (b < 0) {
+                throw new EOFException("truncated trace header");
+            }
+
+            magic = magic << 8 | b;
+        }
+
+        if (magic != ScrollTraceRecorder.MAGIC) {
+            throw new IOException("not a scroll trace");
+        } else {
+            long version = this.readVarint();
+            if (version != (long)ScrollTraceRecorder.VERSION) {
+                throw new IOException("unsupported trace version " + version);
+            }
+        }
+    }
+
+    public boolean next() throws IOException {
+        int type = this.read();
+        if (type < 0) {
+            return false;
+        } else {
+            this.mTimeNanos += this.readVarint() * 1000L;
+            switch(type) {
+            case RECORD_SCROLLED:
+                this.mDy = (int)this.readSigned();
+                this.mFirstVisibleIndex += (int)this.readSigned();
+                this.mItemY += (int)this.readSigned();
+                this.mItemHeight += (int)this.readSigned();
+                break;
+            case RECORD_SCROLL_POSITION:
+                this.mIndex += (int)this.readSigned();
+                this.mPercent += (int)this.readSigned();
+                break;
+            default:
+                throw new IOException("unknown trace record " + type);
+            }
+
+            this.mType = type;
+            return true;
+        }
+    }
+
+    public int getType() {
+        return this.mType;
+    }
+
+    // microsecond precision, relative to the start of the recording
+    public long getTimeNanos() {
+        return this.mTimeNanos;
+    }
+
+    public int getDy() {
+        return this.mDy;
+    }
+
+    public int getFirstVisibleIndex() {
+        return this.mFirstVisibleIndex;
+    }
+
+    public int getItemY() {
+        return this.mItemY;
+    }
+
+    public int getItemHeight() {
+        return this.mItemHeight;
+    }
+
+    public int getIndex() {
+        return this.mType == RECORD_SCROLLED ? this.mFirstVisibleIndex : this.mIndex;
+    }
+
+    public float getPercent() {
+        if (this.mType == RECORD_SCROLLED) {
+            return this.mItemHeight == 0 ? 0.0F : (float)this.mItemY / (float)this.mItemHeight;
+        } else {
+            return (float)this.mPercent / (float)ScrollTraceRecorder.PERCENT_ONE;
+        }
+    }
+
+    // hands the record read by the last next() to the target
+    public void apply(Target target) {
+        if (this.mType == RECORD_SCROLLED) {
+            target.onScrolled(this.mDy, this.getIndex(), this.getPercent());
+        } else {
+            target.onScrollPosition(this.getPercent(), this.getIndex());
+        }
+
+    }
+
+    // blocks the calling thread, sleeping between events when realTime is set, and applies events back to back with no
+    // frame in between; that suits a ModelTarget on any thread, a PageIndicator is replayed with startTraceReplay instead
+    public long replay(Target target, boolean realTime) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        long count = 0L;
+
+        while(this.next()) {
+            if (realTime) {
+                long wait = this.mTimeNanos - (System.nanoTime() - start);
+                if (wait > 0L) {
+                    Thread.sleep(wait / 1000000L, (int)(wait % 1000000L));
+                }
+            }
+
+            this.apply(target);
+            ++count;
+        }
+
+        return count;
+    }
+
+    private long readSigned() throws IOException {
+        long value = this.readVarint();
+        return value >>> 1 ^ -(value & 1L);
+    }
+
+    private long readVarint() throws IOException {
+        long value = 0L;
+
+        for(int shift = 0; shift < 64; shift += 7) {
+            int b = this.read();
+            if (b < 0) {
+                throw new EOFException("truncated trace record");
+            }
+
+            value |= (long)(b & 127) << shift;
+            if ((b & 128) == 0) {
+                return value;
+            }
+        }
+
+        throw new IOException("malformed varint");
+    }
+
+    private int read() throws IOException {
+        if (this.mPosition == this.mLimit) {
+            this.mLimit = this.mIn.read(this.mBuffer, 0, this.mBuffer.length);
+            this.mPosition = 0;
+            if (this.mLimit <= 0) {
+                this.mLimit = 0;
+                return -1;
+            }
+        }
+
+        return this.mBuffer[this.mPosition++] & 255;
+    }
+
+    public interface Target {
+        void onScrolled(int dy, int index, float percent);
+
+        void onScrollPosition(float percent, int index);
+    }
+
+    // drives a bare model, optionally rendering every applied event into a sink to profile full frames; any one thread at a time
+    public static final class ModelTarget implements Target {
+        private final IndicatorModel mModel;
+        private final DotSink mSink;
+        private long mFrameCount;
+
+        public ModelTarget(IndicatorModel model, DotSink sink) {
+            this.mModel = model;
+            this.mSink = sink;
+        }
+
+        public void onScrolled(int dy, int index, float percent) {
+            this.onScrollPosition(percent, index);
+        }
+
+        public void onScrollPosition(float percent, int index) {
+            IndicatorModel model = this.mModel;
+            boolean applied = model.getSections() != null ? model.setSectionScrollPosition(percent, (long)index) : model.setScrollPosition(percent, index);
+            if (applied && this.mSink != null) {
+                model.computeFrame();
+                model.renderFrame(this.mSink);
+                model.markFrameRendered();
+                ++this.mFrameCount;
+            }
+
+        }
+
+        public long getFrameCount() {
+            return this.mFrameCount;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+
+import android.annotation.TargetApi;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.RecordingCanvas;
+import android.graphics.RenderNode;
+import android.os.Build.VERSION;
+import android.os.Build.VERSION_CODES;
+
+@TargetApi(29)
+public final class StaticDotLayer {
+    private final RenderNode mNode = new RenderNode("PageIndicatorStaticDots");
+    private boolean mRecorded;
+    private int mGeneration;
+    private int mWindowFirst;
+    private boolean mShifting;
+    private int mCurrentSelectedIndex;
+    private int mNextSelectedIndex;
+    private int mColor;
+    private int mRecordCount;
+
+    public static boolean isSupported(Canvas canvas) {
+        return VERSION.SDK_INT >= VERSION_CODES.Q && canvas.isHardwareAccelerated();
+    }
+
+    public int getRecordCount() {
+        return this.mRecordCount;
+    }
+
+    public void draw(Canvas canvas, IndicatorModel model, Paint paint, int width, int height) {
+        int count = model.getFrameCount();
+        float[] x = model.getFrameX();
+        float[] y = model.getFrameY();
+        float[] radius = model.getFrameRadius();
+        int[] alpha = model.getFrameAlpha();
+        boolean[] still = model.getFrameStatic();
+        float translationY = model.getFrameTranslationY();
+        if (!this.matches(model, paint.getColor())) {
+            this.mNode.setPosition(0, 0, width, height);
+            RecordingCanvas recording = this.mNode.beginRecording(width, height);
+
+            for(int i = 0; i < count; ++i) {
+                if (still[i]) {
+                    paint.setAlpha(alpha[i]);
+                    recording.drawCircle(x[i], y[i] - translationY, radius[i], paint);
+                }
+            }
+
+            this.mNode.endRecording();
+            this.mRecorded = true;
+            this.mGeneration = model.getGeneration();
+            this.mWindowFirst = model.getFrameWindowFirst();
+            this.mShifting = model.isFrameShifting();
+            this.mCurrentSelectedIndex = model.getCurrentSelectedIndex();
+            this.mNextSelectedIndex = model.getNextSelectedIndex();
+            this.mColor = paint.getColor();
+            ++this.mRecordCount;
+        }
+
+        this.mNode.setTranslationY(translationY);
+        canvas.drawRenderNode(this.mNode);
+
+        for(int i = 0; i < count; ++i) {
+            if (!still[i]) {
+                paint.setAlpha(alpha[i]);
+                canvas.drawCircle(x[i], y[i], radius[i], paint);
+            }
+        }
+
+    }
+
+    private boolean matches(IndicatorModel model, int color) {
+        return this.mRecorded && this.mGeneration == model.getGeneration() && this.mWindowFirst == model.getFrameWindowFirst() && this.mShifting == model.isFrameShifting() && this.mCurrentSelectedIndex == model.getCurrentSelectedIndex() && this.mNextSelectedIndex == model.getNextSelectedIndex() && (this.mColor & 16777215) == (color & 16777215);
+    }
+
+    public void discard() {
+        this.mNode.discardDisplayList();
+        this.mRecorded = false;
+    }
+}
@@ -0,0 +1,173 @@
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+
+/**
+ * Allocation gate for the scroll/draw path: drives simulated scroll events through the offset
+ * tracker and the IndicatorPipeline that PageIndicator itself runs from onScrolled and onDraw
+ * (with tracing, metrics and the quality governor on), renders each dirty frame through a dot
+ * sink or the batched bucketing, and exits with status 1 if any bytes are allocated while doing so.
+ * Reading the anchor view on a resync and the Canvas calls themselves need Android and are not covered.
+ * <p>
+ * javac -d out IndicatorModel.java IndicatorGeometry.java IndicatorSectionIndex.java IndicatorTracer.java DotSink.java
+ * ScrollOffsetTracker.java RasterDotSink.java ScrollTraceRecorder.java ScrollTraceReplayer.java IndicatorMetrics.java
+ * QualityGovernor.java IndicatorPipeline.java DotBatch.java ScrollPositionMailbox.java benchmark/*.java && java -cp out AllocationGate
+ * <p>
+ * -Dgate.events sets the measured scroll events per case (10000 by default).
+ */
+public final class AllocationGate {
+    // the first pass over freshly compiled code can report a few bytes of JIT bookkeeping, a real per-event allocation shows up in every round
+    private static final int ROUNDS = 3;
+    private static final int ITEM_HEIGHT = 1080;
+    private static final int[] DOT_COUNTS = new int[]{5, 100, 100000};
+    private static final int[] VISIBLE_COUNTS = new int[]{5, 31};
+    private final com.sun.management.ThreadMXBean mThreadBean;
+    private final long mThreadId;
+    private final int mEvents;
+    private final ScrollOffsetTracker mTracker = new ScrollOffsetTracker();
+    private final IndicatorTracer mTracer = new IndicatorTracer(256);
+    private final IndicatorMetrics mMetrics = new IndicatorMetrics();
+    private final QualityGovernor mQualityGovernor = new QualityGovernor();
+    private final CountingCanvas mCanvas = new CountingCanvas();
+    private final DotBatch mBatch = new DotBatch(0.25F);
+    private IndicatorModel mModel;
+    private IndicatorPipeline mPipeline;
+    private boolean mBatched;
+    private long mPosition;
+    private int mVelocity;
+    private long mSink;
+
+    private AllocationGate(int events) {
+        this.mThreadBean = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+        this.mThreadBean.setThreadAllocatedMemoryEnabled(true);
+        this.mThreadId = Thread.currentThread().getId();
+        this.mEvents = events;
+    }
+
+    public static void main(String[] args) {
+        AllocationGate gate = new AllocationGate(Integer.getInteger("gate.events", 10000));
+        int failures = 0;
+
+        for(int d = 0; d < DOT_COUNTS.length; ++d) {
+            for(int v = 0; v < VISIBLE_COUNTS.length; ++v) {
+                for(int s = 0; s < 2; ++s) {
+                    for(int b = 0; b < 2; ++b) {
+                        if (!gate.run(DOT_COUNTS[d], VISIBLE_COUNTS[v], s == 1, b == 1)) {
+                            ++failures;
+                        }
+                    }
+                }
+            }
+        }
+
+        System.out.println("sink " + gate.mSink + " " + gate.mCanvas.getChecksum());
+        if (failures > 0) {
+            System.out.println(failures + " case(s) allocated on the scroll/draw path");
+            System.exit(1);
+        }
+
+    }
+
+    private boolean run(int dotCount, int visibleCount, boolean sections, boolean batched) {
+        this.reset(dotCount, visibleCount, sections);
+        this.mBatched = batched;
+
+        for(int i = 0; i < this.mEvents; ++i) {
+            this.onScrolled(i);
+        }
+
+        long bytes = Long.MAX_VALUE;
+
+        for(int round = 0; round < ROUNDS; ++round) {
+            long startBytes = this.mThreadBean.getThreadAllocatedBytes(this.mThreadId);
+
+            for(int i = 0; i < this.mEvents; ++i) {
+                this.onScrolled(i);
+            }
+
+            bytes = Math.min(bytes, this.mThreadBean.getThreadAllocatedBytes(this.mThreadId) - startBytes);
+        }
+
+        boolean passed = bytes == 0L;
+        System.out.println(String.format(Locale.US, "%-4s dots=%-7d visible=%-3d sections=%-5b batched=%-5b %8d events %10d bytes %8.3f B/event", passed ? "ok" : "FAIL", dotCount, visibleCount, sections, batched, this.mEvents, bytes, (double)bytes / (double)this.mEvents));
+        return passed;
+    }
+
+    private void reset(int dotCount, int visibleCount, boolean sections) {
+        IndicatorModel model = new IndicatorModel();
+        model.setDotVisibleCount(visibleCount);
+        model.setDotRadius(9, 5);
+        model.measure(1200, 0, 0);
+        model.setViewport(48, 1200, 0, 0);
+        if (sections) {
+            model.setSections(new IndicatorSectionIndex(new long[]{0L, (long)dotCount, (long)dotCount * 2L}, (long)dotCount * 3L));
+            model.setSectionScrollPosition(0.0F, 0L);
+        } else {
+            model.setSelectedIndex(0, dotCount);
+        }
+
+        this.mModel = model;
+        this.mPipeline = new IndicatorPipeline(model);
+        this.mPipeline.setTracer(this.mTracer);
+        this.mPipeline.setMetrics(this.mMetrics);
+        this.mPipeline.setQualityGovernor(this.mQualityGovernor);
+        this.mPosition = 0L;
+        this.mVelocity = 0;
+        this.mTracker.invalidate();
+        this.mTracer.clear();
+    }
+
+    // ExtentPositionProvider.update followed by PageIndicator.onDispatchedScroll
+    private void onScrolled(int i) {
+        int dy = this.nextDelta(i);
+        ScrollOffsetTracker tracker = this.mTracker;
+        if (!tracker.scrollBy(dy)) {
+            // stands in for reading the first visible view
+            int index = (int)Math.floorDiv(this.mPosition, (long)ITEM_HEIGHT);
+            tracker.setAnchor(index, (int)((long)index * (long)ITEM_HEIGHT - this.mPosition), ITEM_HEIGHT);
+        }
+
+        int index = tracker.getIndex();
+        float percent = tracker.getPercent();
+        IndicatorPipeline pipeline = this.mPipeline;
+        pipeline.onScrolled(dy, index, percent);
+        if (pipeline.applyScrollPosition(percent, index) != IndicatorModel.DIRTY_NONE) {
+            this.onDraw(i);
+        }
+
+    }
+
+    private void onDraw(int i) {
+        IndicatorPipeline pipeline = this.mPipeline;
+        pipeline.beginDraw((long)i * 16L);
+        if (this.mBatched) {
+            this.mSink += (long)this.mBatch.build(this.mModel);
+        } else {
+            this.mModel.renderFrame(this.mCanvas);
+        }
+
+        pipeline.endDraw();
+        this.mSink += (long)this.mModel.getFrameCount();
+    }
+
+    private int nextDelta(int i) {
+        IndicatorSectionIndex sections = this.mModel.getSections();
+        long itemCount = sections != null ? sections.getItemCount() : (long)this.mModel.getDotCount();
+        long limit = (itemCount - 1L) * (long)ITEM_HEIGHT;
+        if (i % 240 == 0) {
+            this.mVelocity = (i / 240 & 1) == 0 ? 180 : -180;
+        } else if (i % 240 < 120) {
+            this.mVelocity = this.mVelocity * 15 / 16;
+        } else if (i % 240 == 120) {
+            this.mVelocity = (i / 240 & 1) == 0 ? 9 : -9;
+        }
+
+        int dy = this.mVelocity;
+        if (this.mPosition + (long)dy < 0L || this.mPosition + (long)dy > limit) {
+            dy = -dy;
+            this.mVelocity = -this.mVelocity;
+        }
+
+        this.mPosition += (long)dy;
+        return dy;
+    }
+}
@@ -0,0 +1,43 @@
+
+public final class CountingCanvas implements DotSink {
+    private long mDrawCircleCount;
+    private long mSetAlphaCount;
+    private double mChecksum;
+
+    public void replay(IndicatorModel model) {
+        model.renderFrame(this);
+    }
+
+    public void drawDot(float cx, float cy, float radius, int alpha) {
+        this.setAlpha(alpha);
+        this.drawCircle(cx, cy, radius);
+    }
+
+    public void setAlpha(int alpha) {
+        ++this.mSetAlphaCount;
+        this.mChecksum += (double)alpha;
+    }
+
+    public void drawCircle(float cx, float cy, float radius) {
+        ++this.mDrawCircleCount;
+        this.mChecksum += (double)(cx + cy + radius);
+    }
+
+    public long getDrawCircleCount() {
+        return this.mDrawCircleCount;
+    }
+
+    public long getSetAlphaCount() {
+        return this.mSetAlphaCount;
+    }
+
+    public double getChecksum() {
+        return this.mChecksum;
+    }
+
+    public void reset() {
+        this.mDrawCircleCount = 0L;
+        this.mSetAlphaCount = 0L;
+        this.mChecksum = 0.0D;
+    }
+}
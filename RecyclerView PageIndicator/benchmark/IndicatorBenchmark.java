@@ -0,0 +1,258 @@
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Plain-JVM benchmark for the indicator hot path, reporting ns/op and allocated bytes/op. The onScrolled and
+ * onDraw rows run the offset tracker and the IndicatorPipeline the way PageIndicator does, setScrollPosition
+ * is the bare model call.
+ * <p>
+ * javac -d out IndicatorModel.java IndicatorGeometry.java IndicatorSectionIndex.java IndicatorTracer.java DotSink.java
+ * ScrollOffsetTracker.java RasterDotSink.java ScrollTraceRecorder.java ScrollTraceReplayer.java IndicatorMetrics.java
+ * QualityGovernor.java IndicatorPipeline.java DotBatch.java ScrollPositionMailbox.java benchmark/*.java && java -cp out IndicatorBenchmark
+ * <p>
+ * Only the plain-Java sources are listed, the view and renderers need the Android SDK.
+ * <p>
+ * -Dbench.ops sets the measured operations per iteration, -Dbench.maxBytesPerOp makes the run
+ * exit with status 1 when any case allocates more than that, so CI can gate on it.
+ */
+public final class IndicatorBenchmark {
+    private static final int EVENT_COUNT = 4096;
+    private static final int ITERATIONS = 5;
+    private static final int ITEM_HEIGHT = 1080;
+    private static final int[] DOT_COUNTS = new int[]{5, 100, 10000, 100000};
+    private static final int[] VISIBLE_COUNTS = new int[]{5, 9, 31};
+    private static final String[] TRAJECTORIES = new String[]{"drag", "fling", "reversal"};
+    private static final String[] DIRECTIONS = new String[]{"none", "up", "down"};
+    private static final String[] BRANCH_NAMES = new String[]{"drawScrollNone", "drawScrollNoneNormal", "drawScrollUp", "drawScrollDown", "drawScrollUpNormal", "drawScrollDownNormal"};
+    private final com.sun.management.ThreadMXBean mThreadBean;
+    private final long mThreadId;
+    private final int mOps;
+    private final double mMaxBytesPerOp;
+    private final CountingCanvas mCanvas = new CountingCanvas();
+    private final RasterDotSink mRaster = new RasterDotSink(48, 1200);
+    private final float[] mPercents = new float[EVENT_COUNT];
+    private final int[] mIndices = new int[EVENT_COUNT];
+    private final int[] mDeltas = new int[EVENT_COUNT];
+    private final long[] mPositions = new long[EVENT_COUNT];
+    private final ScrollOffsetTracker mTracker = new ScrollOffsetTracker();
+    private final double[] mNanos = new double[ITERATIONS];
+    private IndicatorModel mModel;
+    private IndicatorPipeline mPipeline;
+    private long mSink;
+    private int mFailures;
+
+    private IndicatorBenchmark(int ops, double maxBytesPerOp) {
+        this.mThreadBean = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+        this.mThreadBean.setThreadAllocatedMemoryEnabled(true);
+        this.mThreadId = Thread.currentThread().getId();
+        this.mOps = ops;
+        this.mMaxBytesPerOp = maxBytesPerOp;
+    }
+
+    public static void main(String[] args) {
+        int ops = Integer.getInteger("bench.ops", 200000);
+        double maxBytesPerOp = Double.parseDouble(System.getProperty("bench.maxBytesPerOp", "-1"));
+        IndicatorBenchmark benchmark = new IndicatorBenchmark(ops, maxBytesPerOp);
+        benchmark.runAll();
+        System.out.println("sink " + benchmark.mSink + " " + benchmark.mCanvas.getChecksum());
+        if (benchmark.mFailures > 0) {
+            System.out.println(benchmark.mFailures + " case(s) exceeded " + maxBytesPerOp + " B/op");
+            System.exit(1);
+        }
+
+    }
+
+    private void runAll() {
+        for(int d = 0; d < DOT_COUNTS.length; ++d) {
+            for(int v = 0; v < VISIBLE_COUNTS.length; ++v) {
+                int dotCount = DOT_COUNTS[d];
+                int visibleCount = VISIBLE_COUNTS[v];
+
+                for(int t = 0; t < TRAJECTORIES.length; ++t) {
+                    String params = "dots=" + dotCount + " visible=" + visibleCount + " " + TRAJECTORIES[t];
+                    this.buildTrajectory(dotCount, TRAJECTORIES[t]);
+                    this.resetModel(dotCount, visibleCount);
+                    this.measure("setScrollPosition", params, new Op() {
+                        public void run(int i) {
+                            IndicatorBenchmark.this.opSetScrollPosition(i);
+                        }
+                    });
+                    this.resetModel(dotCount, visibleCount);
+                    this.measure("onScrolled", params, new Op() {
+                        public void run(int i) {
+                            IndicatorBenchmark.this.opOnScrolled(i);
+                        }
+                    });
+                    this.resetModel(dotCount, visibleCount);
+                    this.measure("onScrolled+onDraw", params, new Op() {
+                        public void run(int i) {
+                            IndicatorBenchmark.this.opOnScrolled(i);
+                            IndicatorBenchmark.this.opOnDraw();
+                        }
+                    });
+                    this.resetModel(dotCount, visibleCount);
+                    this.measure("onScrolled+raster", params, new Op() {
+                        public void run(int i) {
+                            IndicatorBenchmark.this.opOnScrolled(i);
+                            IndicatorBenchmark.this.opRaster();
+                        }
+                    });
+                }
+
+                for(int b = 0; b < DIRECTIONS.length; ++b) {
+                    this.resetModel(dotCount, visibleCount);
+                    this.prepareDirection(dotCount, DIRECTIONS[b]);
+                    this.mModel.computeFrame();
+                    String name = "onDraw/" + BRANCH_NAMES[this.mModel.getFrameBranch()];
+                    this.measure(name, "dots=" + dotCount + " visible=" + visibleCount, new Op() {
+                        public void run(int i) {
+                            IndicatorBenchmark.this.opOnDraw();
+                        }
+                    });
+                }
+            }
+        }
+
+    }
+
+    private void opSetScrollPosition(int i) {
+        int e = i & EVENT_COUNT - 1;
+        if (this.mModel.setScrollPosition(this.mPercents[e], this.mIndices[e])) {
+            ++this.mSink;
+        }
+
+    }
+
+    // ExtentPositionProvider.update followed by PageIndicator.onDispatchedScroll, without the frame alignment
+    private void opOnScrolled(int i) {
+        int e = i & EVENT_COUNT - 1;
+        int dy = this.mDeltas[e];
+        ScrollOffsetTracker tracker = this.mTracker;
+        if (!tracker.scrollBy(dy)) {
+            // stands in for reading the first visible view
+            long position = this.mPositions[e];
+            int index = (int)(position / (long)ITEM_HEIGHT);
+            tracker.setAnchor(index, (int)((long)index * (long)ITEM_HEIGHT - position), ITEM_HEIGHT);
+        }
+
+        int index = tracker.getIndex();
+        float percent = tracker.getPercent();
+        IndicatorPipeline pipeline = this.mPipeline;
+        pipeline.onScrolled(dy, index, percent);
+        if (pipeline.applyScrollPosition(percent, index) != IndicatorModel.DIRTY_NONE) {
+            ++this.mSink;
+        }
+
+    }
+
+    private void opOnDraw() {
+        IndicatorPipeline pipeline = this.mPipeline;
+        pipeline.beginDraw(0L);
+        this.mCanvas.replay(this.mModel);
+        pipeline.endDraw();
+    }
+
+    private void opRaster() {
+        IndicatorPipeline pipeline = this.mPipeline;
+        pipeline.beginDraw(0L);
+        this.mRaster.clear(0);
+        this.mModel.renderFrame(this.mRaster);
+        pipeline.endDraw();
+        this.mSink += (long)this.mRaster.getPixels()[600 * 48 + 24];
+    }
+
+    private void resetModel(int dotCount, int visibleCount) {
+        IndicatorModel model = new IndicatorModel();
+        model.setDotVisibleCount(visibleCount);
+        model.setDotRadius(9, 5);
+        model.measure(1200, 0, 0);
+        model.setViewport(48, 1200, 0, 0);
+        model.setSelectedIndex(0, dotCount);
+        this.mModel = model;
+        this.mPipeline = new IndicatorPipeline(model);
+        this.mTracker.invalidate();
+    }
+
+    private void prepareDirection(int dotCount, String direction) {
+        int mid = Math.max(1, Math.min(dotCount / 2, dotCount - 2));
+        this.mModel.setSelectedIndex(mid, dotCount);
+        if ("up".equals(direction)) {
+            this.mModel.setScrollPosition(-0.3F, mid);
+            this.mModel.setScrollPosition(-0.3F, mid);
+        } else if ("down".equals(direction)) {
+            this.mModel.setScrollPosition(-0.3F, mid);
+            this.mModel.setScrollPosition(-0.7F, mid - 1);
+        }
+
+    }
+
+    private void buildTrajectory(int dotCount, String trajectory) {
+        float range = (float)Math.max(1, dotCount - 2);
+        float offset = 0.0F;
+        float step = "fling".equals(trajectory) ? 2.5F : ("reversal".equals(trajectory) ? 0.04F : 0.015F);
+
+        for(int i = 0; i < EVENT_COUNT; ++i) {
+            if ("fling".equals(trajectory)) {
+                step *= 0.97F;
+                if (step < 0.02F) {
+                    step = 2.5F;
+                }
+            } else if ("reversal".equals(trajectory) && i % 60 == 59) {
+                step = -step;
+            }
+
+            offset += step;
+            if (offset >= range) {
+                offset -= range;
+            } else if (offset < 0.0F) {
+                offset += range;
+            }
+
+            int index = (int)offset;
+            this.mIndices[i] = index;
+            this.mPercents[i] = (float)index - offset;
+            this.mPositions[i] = Math.round((double)offset * (double)ITEM_HEIGHT);
+        }
+
+        // the measured ops cycle through the events, so the first delta continues from the last position
+        for(int i = 0; i < EVENT_COUNT; ++i) {
+            this.mDeltas[i] = (int)(this.mPositions[i] - this.mPositions[i == 0 ? EVENT_COUNT - 1 : i - 1]);
+        }
+
+    }
+
+    private void measure(String name, String params, Op op) {
+        for(int i = 0; i < this.mOps; ++i) {
+            op.run(i);
+        }
+
+        long bytes = 0L;
+
+        for(int it = 0; it < ITERATIONS; ++it) {
+            long startBytes = this.mThreadBean.getThreadAllocatedBytes(this.mThreadId);
+            long start = System.nanoTime();
+
+            for(int i = 0; i < this.mOps; ++i) {
+                op.run(i);
+            }
+
+            long end = System.nanoTime();
+            bytes += this.mThreadBean.getThreadAllocatedBytes(this.mThreadId) - startBytes;
+            this.mNanos[it] = (double)(end - start) / (double)this.mOps;
+        }
+
+        Arrays.sort(this.mNanos);
+        double bytesPerOp = (double)bytes / (double)((long)this.mOps * (long)ITERATIONS);
+        System.out.println(String.format(Locale.US, "%-30s %-32s %10.1f ns/op %10.3f B/op", name, params, this.mNanos[ITERATIONS / 2], bytesPerOp));
+        if (this.mMaxBytesPerOp >= 0.0D && bytesPerOp > this.mMaxBytesPerOp) {
+            ++this.mFailures;
+        }
+
+    }
+
+    private interface Op {
+        void run(int i);
+    }
+}
@@ -0,0 +1,60 @@
+
+/**
+ * Checks the dot to adapter item conversion a tap, a scrub or an accessibility scroll jumps with: the item the
+ * RecyclerView is sent to, read back the way GridPositionProvider anchors on its row, must select the same dot
+ * again, with one item per dot and with a grid row per dot.
+ * <p>
+ * javac -d out IndicatorModel.java IndicatorGeometry.java IndicatorSectionIndex.java IndicatorTracer.java DotSink.java
+ * ScrollOffsetTracker.java RasterDotSink.java ScrollTraceRecorder.java ScrollTraceReplayer.java IndicatorMetrics.java
+ * QualityGovernor.java IndicatorPipeline.java DotBatch.java ScrollPositionMailbox.java benchmark/*.java && java -cp out JumpTargetCheck
+ */
+public final class JumpTargetCheck {
+    private static final int ITEM_HEIGHT = 1080;
+    private static final int[] ITEMS_PER_DOT = new int[]{1, 3, 4};
+    private static final int[] PAGE_FIRST_INDICES = new int[]{0, 10};
+    private final ScrollOffsetTracker mTracker = new ScrollOffsetTracker();
+    private int mFailures;
+
+    public static void main(String[] args) {
+        JumpTargetCheck check = new JumpTargetCheck();
+
+        for(int s = 0; s < ITEMS_PER_DOT.length; ++s) {
+            for(int p = 0; p < PAGE_FIRST_INDICES.length; ++p) {
+                check.run(ITEMS_PER_DOT[s], PAGE_FIRST_INDICES[p], 40);
+            }
+        }
+
+        if (check.mFailures > 0) {
+            System.out.println(check.mFailures + " jump target check(s) failed");
+            System.exit(1);
+        }
+
+    }
+
+    private void run(int itemsPerDot, int pageFirstIndex, int dotCount) {
+        IndicatorModel model = new IndicatorModel();
+        model.setDotVisibleCount(5);
+        model.measure(1200, 0, 0);
+        model.setViewport(48, 1200, 0, 0);
+        model.setDotCountAndStartPosition(pageFirstIndex, dotCount);
+        int wrong = 0;
+
+        for(int dot = 0; dot < dotCount - 1; ++dot) {
+            long item = model.getItemPosition(dot, itemsPerDot);
+            // GridPositionProvider.resync anchors on the row of the first visible item
+            this.mTracker.setAnchor((int)(item / (long)itemsPerDot), 0, ITEM_HEIGHT);
+            int index = this.mTracker.getIndex();
+            model.jumpToDot(0, 0L, 0L);
+            if (item % (long)itemsPerDot != 0L || (long)index != model.getAdapterPosition(dot) || !model.setScrollPosition(this.mTracker.getPercent(), index) || model.getCurrentSelectedIndex() != dot) {
+                ++wrong;
+            }
+        }
+
+        boolean passed = wrong == 0;
+        System.out.println((passed ? "ok   " : "FAIL ") + "itemsPerDot=" + itemsPerDot + " pageFirst=" + pageFirstIndex + " dots=" + dotCount + " wrong=" + wrong);
+        if (!passed) {
+            ++this.mFailures;
+        }
+
+    }
+}
@@ -0,0 +1,133 @@
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks ScrollPositionMailbox: values pack and unpack exactly, publishes between two takes coalesce into
+ * one scheduled take of the latest value, and with a producer thread racing the consumer no wake-up is lost,
+ * values only move forward and the last value of every burst is delivered.
+ * <p>
+ * javac -d out IndicatorModel.java IndicatorGeometry.java IndicatorSectionIndex.java IndicatorTracer.java DotSink.java
+ * ScrollOffsetTracker.java RasterDotSink.java ScrollTraceRecorder.java ScrollTraceReplayer.java IndicatorMetrics.java
+ * QualityGovernor.java IndicatorPipeline.java DotBatch.java ScrollPositionMailbox.java benchmark/*.java && java -cp out MailboxCheck
+ */
+public final class MailboxCheck {
+    private static final int BURSTS = 200000;
+    private static final int[] INDICES = new int[]{0, 1, 65535, 65536, 2147483647};
+    private static final float[] PERCENTS = new float[]{0.0F, -0.0F, -0.5F, -0.99999994F, -1.0F, 1.0E-45F, Float.NaN};
+    private int mFailures;
+
+    public static void main(String[] args) throws InterruptedException {
+        MailboxCheck check = new MailboxCheck();
+        check.checkPacking();
+        check.checkCoalescing();
+        check.checkRace();
+        if (check.mFailures > 0) {
+            System.out.println(check.mFailures + " mailbox check(s) failed");
+            System.exit(1);
+        }
+
+    }
+
+    private void checkPacking() {
+        ScrollPositionMailbox mailbox = new ScrollPositionMailbox();
+        int wrong = 0;
+
+        for(int i = 0; i < INDICES.length; ++i) {
+            for(int p = 0; p < PERCENTS.length; ++p) {
+                mailbox.publish(PERCENTS[p], INDICES[i]);
+                if (!mailbox.take() || mailbox.getIndex() != INDICES[i] || Float.floatToRawIntBits(mailbox.getPercent()) != Float.floatToRawIntBits(PERCENTS[p])) {
+                    ++wrong;
+                }
+            }
+        }
+
+        this.report("packing", wrong == 0, "wrong=" + wrong);
+    }
+
+    private void checkCoalescing() {
+        ScrollPositionMailbox mailbox = new ScrollPositionMailbox();
+        boolean first = mailbox.publish(-0.25F, 3);
+        boolean second = mailbox.publish(-0.5F, 4);
+        boolean taken = mailbox.take() && mailbox.getIndex() == 4 && mailbox.getPercent() == -0.5F;
+        boolean empty = !mailbox.take();
+        boolean again = mailbox.publish(0.0F, 5);
+        this.report("coalescing", first && !second && taken && empty && again, "");
+    }
+
+    // the producer stands in for a worker thread and the scheduled semaphore for postOnAnimation, the consumer for the UI thread;
+    // short bursts that wait for their last value keep publishes and takes overlapping; a stress run, it cannot force every interleaving
+    private void checkRace() throws InterruptedException {
+        final ScrollPositionMailbox mailbox = new ScrollPositionMailbox();
+        final Semaphore scheduled = new Semaphore(0);
+        final Semaphore delivered = new Semaphore(0);
+        final int[] lost = new int[]{-1};
+        Thread producer = new Thread(new Runnable() {
+            public void run() {
+                int index = 0;
+
+                for(int burst = 0; burst < BURSTS; ++burst) {
+                    for(int i = 0; i <= burst % 3; ++i) {
+                        if (mailbox.publish(-(float)(index & 1023) / 1024.0F, index)) {
+                            scheduled.release();
+                        }
+
+                        ++index;
+                    }
+
+                    try {
+                        if (!delivered.tryAcquire(2L, TimeUnit.SECONDS)) {
+                            lost[0] = index - 1;
+                            scheduled.release();
+                            return;
+                        }
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+
+                // wakes the consumer up to stop
+                mailbox.publish(0.0F, Integer.MAX_VALUE);
+                scheduled.release();
+            }
+        }, "MailboxCheck-producer");
+        producer.start();
+        int expectedLast = BURSTS / 3 * 6 + (BURSTS % 3 == 2 ? 3 : BURSTS % 3) - 1;
+        int burstEnd = 0;
+        int burst = 0;
+        int last = -1;
+        int wrong = 0;
+
+        while(scheduled.tryAcquire(5L, TimeUnit.SECONDS)) {
+            if (mailbox.take()) {
+                int index = mailbox.getIndex();
+                if (index == Integer.MAX_VALUE) {
+                    break;
+                }
+                if (index <= last || mailbox.getPercent() != -(float)(index & 1023) / 1024.0F) {
+                    ++wrong;
+                }
+
+                last = index;
+                if (index == burstEnd + burst % 3) {
+                    burstEnd = index + 1;
+                    ++burst;
+                    delivered.release();
+                }
+            } else if (lost[0] >= 0) {
+                break;
+            }
+        }
+
+        producer.join();
+        this.report("race bursts=" + BURSTS, lost[0] < 0 && last == expectedLast && wrong == 0, "last=" + last + " wrong=" + wrong + (lost[0] >= 0 ? " lost=" + lost[0] : ""));
+    }
+
+    private void report(String name, boolean passed, String detail) {
+        System.out.println((passed ? "ok   " : "FAIL ") + name + (detail.length() > 0 ? " " + detail : ""));
+        if (!passed) {
+            ++this.mFailures;
+        }
+
+    }
+}
@@ -0,0 +1,193 @@
+
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Checks the model's incremental adapter updates against a list of item identities: after random inserts,
+ * removes and moves the dot count, the page start and the selected dot must follow the same items, and the
+ * window must sit on the selection.
+ * <p>
+ * javac -d out IndicatorModel.java IndicatorGeometry.java IndicatorSectionIndex.java IndicatorTracer.java DotSink.java
+ * ScrollOffsetTracker.java RasterDotSink.java ScrollTraceRecorder.java ScrollTraceReplayer.java IndicatorMetrics.java
+ * QualityGovernor.java IndicatorPipeline.java DotBatch.java ScrollPositionMailbox.java benchmark/*.java && java -cp out ModelUpdateCheck
+ */
+public final class ModelUpdateCheck {
+    private static final int OPERATIONS = 5000;
+    private static final int[] PAGE_FIRST_INDICES = new int[]{0, 6};
+    private static final int[] VISIBLE_COUNTS = new int[]{5, 9};
+    private final Random mRandom = new Random(17L);
+    // adapter items by identity, and which identities are dots
+    private final ArrayList<Integer> mItems = new ArrayList<>();
+    private boolean[] mDot = new boolean[1024];
+    private int mNextId;
+    private int mSelectedId;
+    private IndicatorModel mModel;
+    private int mFailures;
+
+    public static void main(String[] args) {
+        ModelUpdateCheck check = new ModelUpdateCheck();
+
+        for(int p = 0; p < PAGE_FIRST_INDICES.length; ++p) {
+            for(int v = 0; v < VISIBLE_COUNTS.length; ++v) {
+                check.run(PAGE_FIRST_INDICES[p], VISIBLE_COUNTS[v]);
+            }
+        }
+
+        if (check.mFailures > 0) {
+            System.out.println(check.mFailures + " model update check(s) failed");
+            System.exit(1);
+        }
+
+    }
+
+    private void run(int pageFirstIndex, int visibleCount) {
+        this.mItems.clear();
+        this.mNextId = 0;
+        int dotCount = 30;
+
+        for(int i = 0; i < pageFirstIndex + dotCount + 4; ++i) {
+            this.addItem(i, i >= pageFirstIndex && i < pageFirstIndex + dotCount);
+        }
+
+        int selected = dotCount / 2;
+        this.mSelectedId = this.mItems.get(pageFirstIndex + selected);
+        IndicatorModel model = new IndicatorModel();
+        model.setDotVisibleCount(visibleCount);
+        model.measure(1200, 0, 0);
+        model.setViewport(48, 1200, 0, 0);
+        model.setDotCountAndStartPosition(pageFirstIndex, dotCount);
+        model.setSelectedIndex(selected, dotCount);
+        this.mModel = model;
+        String failed = null;
+
+        for(int op = 0; op < OPERATIONS && failed == null; ++op) {
+            int kind = this.mRandom.nextInt(3);
+            String name;
+            if (kind == 0) {
+                name = this.insert();
+            } else if (kind == 1) {
+                name = this.remove();
+            } else {
+                name = this.move();
+            }
+
+            if (name != null && !this.verify()) {
+                failed = "op " + op + " " + name;
+            }
+        }
+
+        boolean passed = failed == null;
+        System.out.println((passed ? "ok   " : "FAIL ") + "pageFirst=" + pageFirstIndex + " visible=" + visibleCount + " ops=" + OPERATIONS + (passed ? "" : " at " + failed));
+        if (!passed) {
+            ++this.mFailures;
+        }
+
+    }
+
+    private String insert() {
+        int first = this.firstDot();
+        int count = this.dotCount();
+        int position = this.mRandom.nextInt(this.mItems.size() + 1);
+        int itemCount = 1 + this.mRandom.nextInt(4);
+        int start = position - first;
+        // the model takes an insert that touches the dot range, including right after its last dot, as new dots
+        boolean dots = start >= 0 && start <= count;
+
+        for(int i = 0; i < itemCount; ++i) {
+            this.addItem(position + i, dots);
+        }
+
+        this.mModel.onItemRangeInserted(position, itemCount);
+        return "insert " + position + "+" + itemCount;
+    }
+
+    private String remove() {
+        int first = this.firstDot();
+        int count = this.dotCount();
+        int position = this.mRandom.nextInt(this.mItems.size());
+        int itemCount = 1 + this.mRandom.nextInt(Math.min(4, this.mItems.size() - position));
+        int start = Math.max(position, first);
+        int end = Math.min(position + itemCount, first + count);
+        if (end - start >= count || this.mItems.size() - itemCount < 8) {
+            return null;
+        } else {
+            boolean selectedRemoved = false;
+
+            for(int i = 0; i < itemCount; ++i) {
+                if (this.mItems.remove(position) == this.mSelectedId) {
+                    selectedRemoved = true;
+                }
+            }
+
+            this.mModel.onItemRangeRemoved(position, itemCount);
+            if (selectedRemoved) {
+                // the selection falls back to the first dot after the removed range
+                int dot = Math.min(Math.max(0, position - first), this.dotCount() - 1);
+                this.mSelectedId = this.mItems.get(this.firstDot() + dot);
+            }
+
+            return "remove " + position + "+" + itemCount;
+        }
+    }
+
+    private String move() {
+        int first = this.firstDot();
+        int count = this.dotCount();
+        int from = this.mRandom.nextInt(count);
+        int to = this.mRandom.nextInt(count);
+        this.mItems.add(first + to, this.mItems.remove(first + from));
+        this.mModel.onItemRangeMoved(first + from, first + to, 1);
+        return "move " + (first + from) + "->" + (first + to);
+    }
+
+    private boolean verify() {
+        IndicatorModel model = this.mModel;
+        int first = this.firstDot();
+        int count = this.dotCount();
+
+        for(int i = first; i < first + count; ++i) {
+            if (!this.mDot[this.mItems.get(i)]) {
+                return false;
+            }
+        }
+
+        int selected = this.mItems.indexOf(this.mSelectedId) - first;
+        float window = model.getDisplacedWindowPosition();
+        model.computeFrame();
+        return model.getPageFirstIndex() == first && model.getDotCount() == count && model.getCurrentSelectedIndex() == selected && model.getNextSelectedIndex() == selected && model.getFirstVisibleIndex() == model.getWindowFor(selected) && window >= 0.0F && window <= (float)Math.max(0, count - model.getDotVisibleCount());
+    }
+
+    private void addItem(int position, boolean dot) {
+        int id = this.mNextId++;
+        if (id == this.mDot.length) {
+            boolean[] grown = new boolean[id * 2];
+            System.arraycopy(this.mDot, 0, grown, 0, id);
+            this.mDot = grown;
+        }
+
+        this.mDot[id] = dot;
+        this.mItems.add(position, id);
+    }
+
+    private int firstDot() {
+        for(int i = 0; i < this.mItems.size(); ++i) {
+            if (this.mDot[this.mItems.get(i)]) {
+                return i;
+            }
+        }
+
+        return this.mItems.size();
+    }
+
+    private int dotCount() {
+        int count = 0;
+
+        for(int i = 0; i < this.mItems.size(); ++i) {
+            if (this.mDot[this.mItems.get(i)]) {
+                ++count;
+            }
+        }
+
+        return count;
+    }
+}
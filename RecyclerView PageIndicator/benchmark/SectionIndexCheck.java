@@ -0,0 +1,111 @@
+
+import java.util.Random;
+
+/**
+ * Checks IndicatorSectionIndex against a linear scan: the section found for every position around each
+ * boundary, sizes and containment, and that malformed section starts are rejected.
+ * <p>
+ * javac -d out IndicatorModel.java IndicatorGeometry.java IndicatorSectionIndex.java IndicatorTracer.java DotSink.java
+ * ScrollOffsetTracker.java RasterDotSink.java ScrollTraceRecorder.java ScrollTraceReplayer.java IndicatorMetrics.java
+ * QualityGovernor.java IndicatorPipeline.java DotBatch.java ScrollPositionMailbox.java benchmark/*.java && java -cp out SectionIndexCheck
+ */
+public final class SectionIndexCheck {
+    private static final int ROUNDS = 200;
+    private final Random mRandom = new Random(19L);
+    private int mFailures;
+
+    public static void main(String[] args) {
+        SectionIndexCheck check = new SectionIndexCheck();
+        check.checkLookups();
+        check.checkLargePositions();
+        check.checkRejected("empty", new long[0], 10L);
+        check.checkRejected("not at 0", new long[]{1L, 5L}, 10L);
+        check.checkRejected("unsorted", new long[]{0L, 6L, 4L}, 10L);
+        check.checkRejected("empty section", new long[]{0L, 4L, 4L}, 10L);
+        check.checkRejected("empty last section", new long[]{0L, 4L}, 4L);
+        check.checkRejected("section over int", new long[]{0L}, 2147483648L);
+        if (check.mFailures > 0) {
+            System.out.println(check.mFailures + " section index check(s) failed");
+            System.exit(1);
+        }
+
+    }
+
+    private void checkLookups() {
+        int wrong = 0;
+
+        for(int round = 0; round < ROUNDS; ++round) {
+            int sectionCount = 1 + this.mRandom.nextInt(12);
+            long[] starts = new long[sectionCount];
+            long itemCount = 0L;
+
+            for(int i = 0; i < sectionCount; ++i) {
+                starts[i] = itemCount;
+                itemCount += (long)(1 + this.mRandom.nextInt(i % 3 == 0 ? 1 : 40));
+            }
+
+            IndicatorSectionIndex index = new IndicatorSectionIndex(starts, itemCount);
+            // the index keeps its own copy
+            starts[0] = -1L;
+
+            for(long position = -2L; position < itemCount + 2L; ++position) {
+                int expected = scan(index, position);
+                int section = index.findSection(position);
+                if (section != expected || section >= 0 && !index.contains(section, position) || section >= 0 && index.contains(section + 1, position)) {
+                    ++wrong;
+                }
+            }
+
+            long total = 0L;
+
+            for(int i = 0; i < sectionCount; ++i) {
+                total += (long)index.getSectionSize(i);
+            }
+
+            if (total != itemCount || index.getSectionStart(0) != 0L || index.getItemCount() != itemCount) {
+                ++wrong;
+            }
+        }
+
+        this.report("lookups rounds=" + ROUNDS, wrong == 0, "wrong=" + wrong);
+    }
+
+    private void checkLargePositions() {
+        long base = 4000000000L;
+        IndicatorSectionIndex index = new IndicatorSectionIndex(new long[]{0L, base / 2L, base, base + 7L}, base + 100L);
+        boolean passed = index.findSection(base - 1L) == 1 && index.findSection(base) == 2 && index.findSection(base + 6L) == 2 && index.findSection(base + 7L) == 3 && index.findSection(base + 100L) == -1 && index.getSectionSize(3) == 93;
+        this.report("positions past int", passed, "");
+    }
+
+    private void checkRejected(String name, long[] starts, long itemCount) {
+        boolean rejected = false;
+
+        try {
+            new IndicatorSectionIndex(starts, itemCount);
+        } catch (IllegalArgumentException e) {
+            rejected = true;
+        }
+
+        this.report("rejects " + name, rejected, "");
+    }
+
+    // the section whose range holds the position, or -1, by walking every section
+    private static int scan(IndicatorSectionIndex index, long position) {
+        for(int i = 0; i < index.getSectionCount(); ++i) {
+            long start = index.getSectionStart(i);
+            if (position >= start && position < start + (long)index.getSectionSize(i)) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    private void report(String name, boolean passed, String detail) {
+        System.out.println((passed ? "ok   " : "FAIL ") + name + (detail.length() > 0 ? " " + detail : ""));
+        if (!passed) {
+            ++this.mFailures;
+        }
+
+    }
+}
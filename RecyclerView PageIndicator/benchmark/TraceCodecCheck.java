@@ -0,0 +1,134 @@
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Checks the scroll trace encoding round trip: records written by ScrollTraceRecorder, including int extremes
+ * that exercise the widest varints and the zigzag sign, read back by ScrollTraceReplayer field for field across
+ * several buffer flushes, and truncated or foreign input rejected.
+ * <p>
+ * javac -d out IndicatorModel.java IndicatorGeometry.java IndicatorSectionIndex.java IndicatorTracer.java DotSink.java
+ * ScrollOffsetTracker.java RasterDotSink.java ScrollTraceRecorder.java ScrollTraceReplayer.java IndicatorMetrics.java
+ * QualityGovernor.java IndicatorPipeline.java DotBatch.java ScrollPositionMailbox.java benchmark/*.java && java -cp out TraceCodecCheck
+ */
+public final class TraceCodecCheck {
+    private static final int RECORDS = 20000;
+    private static final int[] EXTREMES = new int[]{0, 1, -1, 63, -64, 64, -65, 8191, -8192, Integer.MAX_VALUE, Integer.MIN_VALUE};
+    private final Random mRandom = new Random(19L);
+    private final int[] mTypes = new int[RECORDS];
+    private final int[][] mFields = new int[RECORDS][4];
+    private final float[] mPercents = new float[RECORDS];
+    private int mFailures;
+
+    public static void main(String[] args) throws IOException {
+        TraceCodecCheck check = new TraceCodecCheck();
+        byte[] trace = check.record();
+        check.checkRoundTrip(trace);
+        check.checkTruncated(trace);
+        check.checkForeign();
+        if (check.mFailures > 0) {
+            System.out.println(check.mFailures + " trace codec check(s) failed");
+            System.exit(1);
+        }
+
+    }
+
+    private byte[] record() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ScrollTraceRecorder recorder = new ScrollTraceRecorder(out);
+
+        for(int i = 0; i < RECORDS; ++i) {
+            int[] fields = this.mFields[i];
+            if (this.mRandom.nextBoolean()) {
+                this.mTypes[i] = ScrollTraceReplayer.RECORD_SCROLLED;
+
+                for(int f = 0; f < 4; ++f) {
+                    fields[f] = this.nextValue();
+                }
+
+                recorder.recordScrolled(fields[0], fields[1], fields[2], fields[3]);
+            } else {
+                this.mTypes[i] = ScrollTraceReplayer.RECORD_SCROLL_POSITION;
+                fields[0] = this.nextValue();
+                this.mPercents[i] = -this.mRandom.nextFloat();
+                recorder.recordScrollPosition(this.mPercents[i], fields[0]);
+            }
+        }
+
+        recorder.close();
+        this.report("recorded " + RECORDS + " records", recorder.getError() == null && recorder.getRecordCount() == (long)RECORDS, out.size() + " bytes");
+        return out.toByteArray();
+    }
+
+    private int nextValue() {
+        int kind = this.mRandom.nextInt(3);
+        return kind == 0 ? EXTREMES[this.mRandom.nextInt(EXTREMES.length)] : (kind == 1 ? this.mRandom.nextInt(2001) - 1000 : this.mRandom.nextInt());
+    }
+
+    private void checkRoundTrip(byte[] trace) throws IOException {
+        ScrollTraceReplayer replayer = new ScrollTraceReplayer(new ByteArrayInputStream(trace));
+        int count = 0;
+        int wrong = 0;
+        long lastTime = 0L;
+
+        while(replayer.next()) {
+            if (count < RECORDS) {
+                int[] fields = this.mFields[count];
+                boolean same;
+                if (this.mTypes[count] == ScrollTraceReplayer.RECORD_SCROLLED) {
+                    same = replayer.getType() == ScrollTraceReplayer.RECORD_SCROLLED && replayer.getDy() == fields[0] && replayer.getFirstVisibleIndex() == fields[1] && replayer.getItemY() == fields[2] && replayer.getItemHeight() == fields[3] && replayer.getIndex() == fields[1];
+                } else {
+                    float percent = (float)Math.round(this.mPercents[count] * 65536.0F) / 65536.0F;
+                    same = replayer.getType() == ScrollTraceReplayer.RECORD_SCROLL_POSITION && replayer.getIndex() == fields[0] && replayer.getPercent() == percent;
+                }
+
+                if (!same || replayer.getTimeNanos() < lastTime) {
+                    ++wrong;
+                }
+            }
+
+            lastTime = replayer.getTimeNanos();
+            ++count;
+        }
+
+        this.report("round trip", count == RECORDS && wrong == 0, "read=" + count + " wrong=" + wrong);
+    }
+
+    private void checkTruncated(byte[] trace) throws IOException {
+        ScrollTraceReplayer replayer = new ScrollTraceReplayer(new ByteArrayInputStream(Arrays.copyOf(trace, trace.length - 1)));
+        boolean rejected = false;
+
+        try {
+            while(replayer.next()) {
+            }
+        } catch (EOFException e) {
+            rejected = true;
+        }
+
+        this.report("rejects a truncated record", rejected, "");
+    }
+
+    private void checkForeign() {
+        boolean rejected = false;
+
+        try {
+            new ScrollTraceReplayer(new ByteArrayInputStream(new byte[]{80, 75, 3, 4, 1}));
+        } catch (IOException e) {
+            rejected = true;
+        }
+
+        this.report("rejects a foreign header", rejected, "");
+    }
+
+    private void report(String name, boolean passed, String detail) {
+        System.out.println((passed ? "ok   " : "FAIL ") + name + (detail.length() > 0 ? " " + detail : ""));
+        if (!passed) {
+            ++this.mFailures;
+        }
+
+    }
+}
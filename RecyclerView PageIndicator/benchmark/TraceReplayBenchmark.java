@@ -0,0 +1,54 @@
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+
+/**
+ * Replays a recorded scroll trace into a bare model once per dot sink and reports the cost per event,
+ * so traces captured on devices can be profiled and rendering backends compared on a workstation.
+ * <p>
+ * java -cp out TraceReplayBenchmark trace.bin [dotCount [visibleCount]]
+ * <p>
+ * -Dtrace.realtime=true replays with the recorded timing instead of at full speed.
+ */
+public final class TraceReplayBenchmark {
+    private TraceReplayBenchmark() {
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length == 0) {
+            System.out.println("usage: TraceReplayBenchmark trace.bin [dotCount [visibleCount]]");
+            System.exit(2);
+        }
+
+        int dotCount = args.length > 1 ? Integer.parseInt(args[1]) : 100000;
+        int visibleCount = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        boolean realTime = Boolean.getBoolean("trace.realtime");
+        CountingCanvas canvas = new CountingCanvas();
+        RasterDotSink raster = new RasterDotSink(48, 1200);
+        replay(args[0], "model", null, dotCount, visibleCount, realTime);
+        replay(args[0], "canvas", canvas, dotCount, visibleCount, realTime);
+        replay(args[0], "raster", raster, dotCount, visibleCount, realTime);
+        System.out.println("sink " + canvas.getChecksum());
+    }
+
+    private static void replay(String path, String name, DotSink sink, int dotCount, int visibleCount, boolean realTime) throws IOException, InterruptedException {
+        IndicatorModel model = new IndicatorModel(new IndicatorGeometry(visibleCount, 9, 5, 1.0F, 0.2F));
+        model.measure(1200, 0, 0);
+        model.setViewport(48, 1200, 0, 0);
+        model.setSelectedIndex(0, dotCount);
+        ScrollTraceReplayer.ModelTarget target = new ScrollTraceReplayer.ModelTarget(model, sink);
+        InputStream in = new FileInputStream(path);
+
+        try {
+            ScrollTraceReplayer replayer = new ScrollTraceReplayer(in);
+            long start = System.nanoTime();
+            long events = replayer.replay(target, realTime);
+            long elapsed = System.nanoTime() - start;
+            System.out.println(String.format(Locale.US, "%-8s %10d events %10d frames %10.1f ns/event", name, events, target.getFrameCount(), events == 0L ? 0.0D : (double)elapsed / (double)events));
+        } finally {
+            in.close();
+        }
+
+    }
+}